@@ -0,0 +1,154 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.LibgdxJam;
+import com.siondream.libgdxjam.animation.AnimationControl;
+import com.siondream.libgdxjam.animation.Tags;
+import com.siondream.libgdxjam.physics.Categories;
+import com.siondream.libgdxjam.physics.PhysicsData;
+
+/**
+ * Headless stand-in for {@link LibgdxJam}. Boots the gdx headless backend,
+ * installs a no-op GL20 so atlases can be "uploaded" and loads the subset of
+ * assets the simulation systems pull from {@link Env#getGame()}.
+ *
+ * Must run with the working directory set to android/assets, which is what
+ * the benchmarks jmh task does.
+ */
+public class BenchmarkGame extends LibgdxJam {
+	private static BenchmarkGame instance;
+
+	private AssetManager assetManager;
+	private Categories categories;
+	private Tags tags;
+
+	public static synchronized BenchmarkGame get() {
+		if (instance == null) {
+			instance = new BenchmarkGame();
+			instance.boot();
+		}
+
+		return instance;
+	}
+
+	private BenchmarkGame() {}
+
+	private void boot() {
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = 1.0f;
+		new HeadlessApplication(new ApplicationAdapter() {}, config);
+		Gdx.app.setLogLevel(Application.LOG_ERROR);
+
+		GL20 gl = createNullGL();
+		Gdx.gl = gl;
+		Gdx.gl20 = gl;
+
+		Env.init(this);
+		Box2D.init();
+
+		categories = new Categories();
+		tags = new Tags();
+		assetManager = createAssetManager(categories, tags);
+
+		loadAssets();
+	}
+
+	private void loadAssets() {
+		assetManager.load("textures/characters/characters.atlas", TextureAtlas.class);
+
+		assetManager.load("sfx/alarm.ogg", Sound.class);
+		assetManager.load("sfx/found.ogg", Sound.class);
+		assetManager.load("sfx/laser.ogg", Sound.class);
+		assetManager.load("sfx/laserhit.ogg", Sound.class);
+		assetManager.load("sfx/snore.ogg", Sound.class);
+		assetManager.load("sfx/wakeup.ogg", Sound.class);
+
+		assetManager.load("anims/cctv.json", AnimationControl.class);
+		assetManager.load("anims/grunt.json", AnimationControl.class);
+
+		assetManager.load("physics/grunt-idle.json", PhysicsData.class);
+		assetManager.load("physics/player-stand.json", PhysicsData.class);
+		assetManager.load("physics/player-crouch.json", PhysicsData.class);
+
+		assetManager.finishLoading();
+	}
+
+	@Override
+	public void create() {}
+
+	@Override
+	public void render() {}
+
+	@Override
+	public AssetManager getAssetManager() {
+		return assetManager;
+	}
+
+	@Override
+	public Categories getCategories() {
+		return categories;
+	}
+
+	@Override
+	public Tags getTags() {
+		return tags;
+	}
+
+	@Override
+	public Stage getStage() {
+		return null;
+	}
+
+	/**
+	 * The headless backend leaves Gdx.gl unset. Every call is answered with
+	 * the zero value for its return type, enough for textures and meshes to
+	 * be created without a context. Shaders are created and report they
+	 * compiled and linked, so batches can be created too.
+	 */
+	private static GL20 createNullGL() {
+		return (GL20)Proxy.newProxyInstance(
+			GL20.class.getClassLoader(),
+			new Class<?>[] { GL20.class },
+			new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					String name = method.getName();
+
+					if (name.equals("glCreateShader") || name.equals("glCreateProgram")) {
+						return 1;
+					}
+
+					if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+						((IntBuffer)args[2]).put(0, 1);
+						return null;
+					}
+
+					Class<?> type = method.getReturnType();
+
+					if (type == boolean.class) { return false; }
+					if (type == int.class) { return 0; }
+					if (type == float.class) { return 0.0f; }
+					if (type == String.class) { return ""; }
+
+					return null;
+				}
+			}
+		);
+	}
+}
@@ -0,0 +1,248 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Batch that draws nothing and counts when SpriteBatch would flush: texture
+ * switches, matrix, blend and shader changes while drawing, explicit flushes
+ * and end(). Flushes with no pending vertices are free in SpriteBatch and are
+ * not counted as draw calls.
+ */
+public class CountingBatch implements Batch {
+	private final Matrix4 projection = new Matrix4();
+	private final Matrix4 transform = new Matrix4();
+	private final Color color = new Color(1.0f, 1.0f, 1.0f, 1.0f);
+	private ShaderProgram shader;
+	private Texture lastTexture;
+	private boolean drawing;
+	private boolean blending = true;
+	private int srcFunc = GL20.GL_SRC_ALPHA;
+	private int dstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+	private int pending;
+	
+	public int drawCalls;
+	public int flushes;
+	public int vertices;
+	
+	public void reset() {
+		drawCalls = 0;
+		flushes = 0;
+		vertices = 0;
+	}
+	
+	@Override
+	public void begin() {
+		if (drawing) { throw new IllegalStateException("end() must be called before begin()"); }
+		drawing = true;
+	}
+	
+	@Override
+	public void end() {
+		if (!drawing) { throw new IllegalStateException("begin() must be called before end()"); }
+		flush();
+		lastTexture = null;
+		drawing = false;
+	}
+	
+	@Override
+	public void flush() {
+		++flushes;
+		
+		if (pending == 0) { return; }
+		
+		++drawCalls;
+		pending = 0;
+	}
+	
+	@Override
+	public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+		switchTexture(texture);
+		pending += count;
+		vertices += count;
+	}
+	
+	@Override
+	public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+		quad(texture);
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+		quad(texture);
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+		quad(texture);
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+		quad(texture);
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y) {
+		quad(texture);
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, float width, float height) {
+		quad(texture);
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y) {
+		quad(region.getTexture());
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y, float width, float height) {
+		quad(region.getTexture());
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+		quad(region.getTexture());
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+		quad(region.getTexture());
+	}
+
+	@Override
+	public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+		quad(region.getTexture());
+	}
+	
+	@Override
+	public void setTransformMatrix(Matrix4 transform) {
+		if (drawing) { flush(); }
+		this.transform.set(transform);
+	}
+	
+	@Override
+	public void setProjectionMatrix(Matrix4 projection) {
+		if (drawing) { flush(); }
+		this.projection.set(projection);
+	}
+	
+	@Override
+	public void setBlendFunction(int srcFunc, int dstFunc) {
+		if (this.srcFunc == srcFunc && this.dstFunc == dstFunc) { return; }
+		flush();
+		this.srcFunc = srcFunc;
+		this.dstFunc = dstFunc;
+	}
+	
+	@Override
+	public void disableBlending() {
+		if (!blending) { return; }
+		flush();
+		blending = false;
+	}
+
+	@Override
+	public void enableBlending() {
+		if (blending) { return; }
+		flush();
+		blending = true;
+	}
+	
+	@Override
+	public void setShader(ShaderProgram shader) {
+		if (drawing) { flush(); }
+		this.shader = shader;
+	}
+	
+	@Override
+	public boolean isBlendingEnabled() {
+		return blending;
+	}
+
+	@Override
+	public boolean isDrawing() {
+		return drawing;
+	}
+
+	@Override
+	public int getBlendSrcFunc() {
+		return srcFunc;
+	}
+
+	@Override
+	public int getBlendDstFunc() {
+		return dstFunc;
+	}
+
+	@Override
+	public ShaderProgram getShader() {
+		return shader;
+	}
+
+	@Override
+	public Matrix4 getProjectionMatrix() {
+		return projection;
+	}
+
+	@Override
+	public Matrix4 getTransformMatrix() {
+		return transform;
+	}
+
+	@Override
+	public void setColor(Color tint) {
+		color.set(tint);
+	}
+
+	@Override
+	public void setColor(float r, float g, float b, float a) {
+		color.set(r, g, b, a);
+	}
+
+	@Override
+	public void setColor(float color) {
+		int bits = NumberUtils.floatToIntColor(color);
+		this.color.set(
+			(bits & 0xff) / 255.0f,
+			((bits >>> 8) & 0xff) / 255.0f,
+			((bits >>> 16) & 0xff) / 255.0f,
+			((bits >>> 24) & 0xff) / 255.0f
+		);
+	}
+
+	@Override
+	public Color getColor() {
+		return color;
+	}
+
+	@Override
+	public float getPackedColor() {
+		return color.toFloatBits();
+	}
+	
+	@Override
+	public void dispose() {}
+	
+	private void quad(Texture texture) {
+		draw(texture, null, 0, 20);
+	}
+	
+	private void switchTexture(Texture texture) {
+		if (!drawing) { throw new IllegalStateException("begin() must be called before draw()"); }
+		
+		if (texture != lastTexture) {
+			flush();
+			lastTexture = texture;
+		}
+	}
+}
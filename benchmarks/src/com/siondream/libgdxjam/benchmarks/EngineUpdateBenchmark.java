@@ -0,0 +1,89 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.ecs.systems.SpineSystem;
+
+/**
+ * Cost of one fixed simulation step, Engine.update(Env.STEP), as the number
+ * of grunts in the level grows, with skeletons updated in parallel or not and
+ * with or without a camera showing the start of the corridor, for the
+ * skeleton levels of detail.
+ *
+ * Run with: gradlew benchmarks:jmh -PjmhArgs="EngineUpdateBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EngineUpdateBenchmark {
+	private static final int SETTLE_STEPS = 120;
+
+	@Param({ "8", "32", "128" })
+	public int grunts;
+
+	// Skeletons on the worker threads or in order on the benchmark thread
+	@Param({ "true", "false" })
+	public boolean parallelSpine;
+
+	// A screen of the corridor is in view, the rest of the skeletons are not posed
+	@Param({ "true", "false" })
+	public boolean spineLod;
+
+	private SyntheticScene scene;
+	private Engine engine;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkGame.get();
+
+		scene = new SyntheticScene();
+		scene.build(grunts);
+		engine = scene.getEngine();
+		engine.getSystem(SpineSystem.class).setParallel(parallelSpine);
+
+		if (spineLod) {
+			OrthographicCamera camera = new OrthographicCamera(Env.MAX_WORLD_WIDTH, Env.MAX_WORLD_HEIGHT);
+			camera.position.set(Env.MAX_WORLD_WIDTH * 0.5f, Env.MAX_WORLD_HEIGHT * 0.5f, 0.0f);
+			engine.getSystem(SpineSystem.class).setCamera(camera);
+		}
+
+		// Let bodies land and the state machines enter their first states
+		for (int i = 0; i < SETTLE_STEPS; ++i) {
+			engine.update(Env.STEP);
+		}
+
+		Env.getGame().getMainThreadQueue().run();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		scene.dispose();
+	}
+
+	@Benchmark
+	public void update() {
+		engine.update(Env.STEP);
+		// Sounds the step queued, as GameScreen.sync() would
+		Env.getGame().getMainThreadQueue().run();
+	}
+}
@@ -0,0 +1,106 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.physics.PhysicsData;
+
+/**
+ * Spawning a crowd of grunt bodies from their PhysicsData template: one
+ * createBody() plus setTransform() per grunt, as the plugins used to do,
+ * versus a single createBodies() call. Bodies are destroyed again after each
+ * invocation so the world does not grow.
+ *
+ * Run with: gradlew benchmarks:jmh -PjmhArgs="PhysicsDataBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PhysicsDataBenchmark {
+	@Param({ "16", "128" })
+	public int bodies;
+	
+	private World world;
+	private PhysicsData physicsData;
+	private Object[] userData;
+	private float[] positions;
+	private Array<Body> created = new Array<Body>();
+	private Vector2 position = new Vector2();
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkGame.get();
+		
+		world = new World(Env.GRAVITY, Env.DO_SLEEP);
+		physicsData = Env.getGame().getAssetManager().get(
+			Env.PHYSICS_FOLDER + "/grunt-idle.json",
+			PhysicsData.class
+		);
+		
+		userData = new Object[bodies];
+		positions = new float[bodies * 2];
+		
+		for (int i = 0; i < bodies; ++i) {
+			userData[i] = new Object();
+			positions[i * 2] = i * 2.0f;
+			positions[i * 2 + 1] = 1.0f;
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.dispose();
+	}
+	
+	@Benchmark
+	public int createBody() {
+		for (int i = 0; i < bodies; ++i) {
+			Body body = physicsData.createBody(world, userData[i]);
+			position.set(positions[i * 2], positions[i * 2 + 1]);
+			body.setTransform(position, 0.0f);
+			created.add(body);
+		}
+		
+		return destroy();
+	}
+	
+	@Benchmark
+	public int createBodies() {
+		physicsData.createBodies(world, userData, positions, bodies, created);
+		
+		return destroy();
+	}
+	
+	private int destroy() {
+		int count = created.size;
+		
+		for (int i = 0; i < created.size; ++i) {
+			world.destroyBody(created.get(i));
+		}
+		
+		created.clear();
+		
+		return count;
+	}
+}
@@ -0,0 +1,194 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.rendering.RenderQueue;
+import com.siondream.libgdxjam.rendering.RenderSnapshot;
+
+/**
+ * A frame of the synthetic level, simulation plus the world pass, the way
+ * GameScreen runs it: back to back, or pipelined with the next frame
+ * simulated on a worker while the current snapshot is submitted, see
+ * Env.PARALLEL_SIMULATION. Snapshots go through a PolygonSpriteBatch over
+ * the no-op GL, which leaves the batching the GL thread does.
+ *
+ * Setup checks the pipeline first and fails the trial if a snapshot it
+ * submits does not hash the same as the one a serial run records for the
+ * same frame, or changes while the worker records the next one.
+ *
+ * Run with: gradlew benchmarks:jmh -PjmhArgs="PipelineBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+	private static final int CHECK_FRAMES = 300;
+
+	@Param({ "16", "64" })
+	public int grunts;
+
+	private SyntheticScene scene;
+	private Engine engine;
+	private RenderQueue queue;
+	private RenderSnapshot front = new RenderSnapshot();
+	private RenderSnapshot back = new RenderSnapshot();
+	private PolygonSpriteBatch batch;
+	private AsyncExecutor executor = new AsyncExecutor(1);
+	private int frame;
+	private AsyncTask<Void> simulate = new AsyncTask<Void>() {
+		@Override
+		public Void call() throws Exception {
+			simulate();
+			return null;
+		}
+	};
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkGame.get();
+		batch = new PolygonSpriteBatch();
+
+		int[] hashes = recordSerial();
+
+		scene = new SyntheticScene();
+		scene.build(grunts);
+		engine = scene.getEngine();
+		// Scene entities are only added by the first update
+		engine.update(Env.STEP);
+		queue = createQueue(engine);
+
+		for (int i = 0; i < CHECK_FRAMES; ++i) {
+			AsyncResult<Void> result = executor.submit(simulate);
+
+			if (front.getFrame() >= 0) {
+				int hash = front.getVertexHash();
+				draw(front);
+
+				if (hash != hashes[front.getFrame()] || hash != front.getVertexHash()) {
+					result.get();
+					throw new IllegalStateException(
+						"snapshot of frame " + front.getFrame() + " differs from the serial one"
+					);
+				}
+			}
+
+			result.get();
+			sync();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.dispose();
+		scene.dispose();
+		batch.dispose();
+	}
+
+	@Benchmark
+	public int serial() {
+		simulate();
+		sync();
+		draw(front);
+
+		return batch.renderCalls;
+	}
+
+	@Benchmark
+	public int pipelined() {
+		AsyncResult<Void> result = executor.submit(simulate);
+		draw(front);
+		result.get();
+		sync();
+
+		return batch.renderCalls;
+	}
+
+	/**
+	 * Vertex hashes of the first CHECK_FRAMES snapshots of a scene simulated
+	 * and recorded on the calling thread.
+	 */
+	private int[] recordSerial() {
+		SyntheticScene reference = new SyntheticScene();
+		reference.build(grunts);
+		Engine referenceEngine = reference.getEngine();
+		referenceEngine.update(Env.STEP);
+
+		RenderQueue referenceQueue = createQueue(referenceEngine);
+		RenderSnapshot snapshot = new RenderSnapshot();
+		int[] hashes = new int[CHECK_FRAMES];
+
+		for (int i = 0; i < CHECK_FRAMES; ++i) {
+			referenceEngine.update(Env.STEP);
+			record(referenceQueue, snapshot, i);
+			hashes[i] = snapshot.getVertexHash();
+			Env.getGame().getMainThreadQueue().run();
+		}
+
+		reference.dispose();
+
+		return hashes;
+	}
+
+	private void simulate() {
+		engine.update(Env.STEP);
+		record(queue, back, frame);
+	}
+
+	/**
+	 * What GameScreen.sync() does between frames.
+	 */
+	private void sync() {
+		RenderSnapshot snapshot = front;
+		front = back;
+		back = snapshot;
+		++frame;
+		Env.getGame().getMainThreadQueue().run();
+	}
+
+	private void record(RenderQueue queue, RenderSnapshot snapshot, int frame) {
+		snapshot.begin(frame, batch.getProjectionMatrix());
+		queue.begin(null);
+		queue.collectVisible();
+		queue.record(snapshot);
+	}
+
+	private void draw(RenderSnapshot snapshot) {
+		batch.begin();
+		snapshot.submit(batch);
+		batch.end();
+	}
+
+	private static RenderQueue createQueue(Engine engine) {
+		RenderQueue queue = new RenderQueue();
+
+		for (Entity entity : engine.getEntitiesFor(RenderQueue.family)) {
+			queue.add(entity);
+		}
+
+		return queue;
+	}
+}
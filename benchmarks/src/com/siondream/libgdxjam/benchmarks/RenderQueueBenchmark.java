@@ -0,0 +1,257 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.LayerComponent;
+import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.RootComponent;
+import com.siondream.libgdxjam.ecs.components.SizeComponent;
+import com.siondream.libgdxjam.ecs.components.TextureComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
+import com.siondream.libgdxjam.ecs.systems.LayerSystem;
+import com.siondream.libgdxjam.ecs.systems.NodeSystem;
+import com.siondream.libgdxjam.ecs.systems.TransformSystem;
+import com.siondream.libgdxjam.rendering.RenderQueue;
+import com.siondream.libgdxjam.rendering.RenderSnapshot;
+
+/**
+ * World pass of RenderingSystem against a CountingBatch: recording the render
+ * queue into a snapshot and submitting it versus drawing in tree order with
+ * one transform matrix per node, which is what RenderingSystem used to do.
+ *
+ * Sprites are spread over a few textures and layers and interleaved in tree
+ * order, half of them grouped under rotated composite nodes. Flush and draw
+ * call counts per frame are printed when each trial ends.
+ *
+ * culled() views a camera sized window at the start of the level, the rest
+ * of the sprites should cost nothing.
+ *
+ * Run with: gradlew benchmarks:jmh -PjmhArgs="RenderQueueBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RenderQueueBenchmark {
+	private static final String[] LAYERS = { "Background", "Default", "Foreground" };
+	private static final int TEXTURES = 4;
+	private static final int COMPOSITE_SIZE = 8;
+	private static final Rectangle VIEW = new Rectangle(0.0f, 0.0f, 12.8f, 7.2f);
+	
+	@Param({ "256", "1024" })
+	public int sprites;
+	
+	private Engine engine;
+	private Entity root;
+	private Array<Texture> textures = new Array<Texture>();
+	private RenderQueue queue = new RenderQueue();
+	private CountingBatch batch = new CountingBatch();
+	private RenderSnapshot snapshot = new RenderSnapshot();
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkGame.get();
+		
+		for (int i = 0; i < TEXTURES; ++i) {
+			Pixmap pixmap = new Pixmap(16, 16, Format.RGBA8888);
+			textures.add(new Texture(pixmap));
+			pixmap.dispose();
+		}
+		
+		engine = new Engine();
+		engine.addSystem(new LayerSystem());
+		engine.addSystem(new TransformSystem());
+		engine.addEntityListener(
+			Family.all(NodeComponent.class).get(),
+			new NodeSystem(engine)
+		);
+		
+		root = createRoot();
+		
+		Entity composite = null;
+		
+		for (int i = 0; i < sprites; ++i) {
+			Entity parent = root;
+			
+			if (i % 2 == 1) {
+				if (i % (COMPOSITE_SIZE * 2) == 1) {
+					composite = createNode(root, i * 0.5f, 0.0f, 30.0f);
+				}
+				parent = composite;
+			}
+			
+			createSprite(parent, i, textures.get(i % TEXTURES));
+		}
+		
+		engine.addEntity(root);
+		engine.update(Env.STEP);
+		
+		for (Entity entity : engine.getEntitiesFor(RenderQueue.family)) {
+			queue.add(entity);
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		queue();
+		System.out.println();
+		System.out.println(
+			"queue: " + batch.drawCalls + " draw calls, " +
+			batch.flushes + " flushes, " +
+			queue.getRuns() + " runs per frame"
+		);
+		
+		culled();
+		System.out.println(
+			"culled: " + batch.drawCalls + " draw calls, " +
+			queue.getSize() + " commands per frame"
+		);
+		
+		treeOrder();
+		System.out.println(
+			"tree order: " + batch.drawCalls + " draw calls, " +
+			batch.flushes + " flushes per frame"
+		);
+		
+		engine.removeAllEntities();
+		
+		for (Texture texture : textures) {
+			texture.dispose();
+		}
+	}
+	
+	@Benchmark
+	public int queue() {
+		batch.reset();
+		batch.begin();
+		snapshot.begin(0, batch.getProjectionMatrix());
+		queue.begin(null);
+		queue.collectStatic(root);
+		queue.collectVisible();
+		queue.record(snapshot);
+		snapshot.submit(batch);
+		batch.end();
+		
+		return batch.drawCalls;
+	}
+	
+	@Benchmark
+	public int culled() {
+		batch.reset();
+		batch.begin();
+		snapshot.begin(0, batch.getProjectionMatrix());
+		queue.begin(VIEW);
+		queue.collectStatic(root);
+		queue.collectVisible();
+		queue.record(snapshot);
+		snapshot.submit(batch);
+		batch.end();
+		
+		return batch.drawCalls;
+	}
+	
+	@Benchmark
+	public int treeOrder() {
+		batch.reset();
+		batch.begin();
+		drawChildren(root);
+		batch.end();
+		
+		return batch.drawCalls;
+	}
+	
+	private void drawChildren(Entity entity) {
+		NodeComponent node = Mappers.node.get(entity);
+		
+		for (Entity child : node.children) {
+			NodeComponent childNode = Mappers.node.get(child);
+			batch.setTransformMatrix(childNode.computed);
+			
+			if (Mappers.texture.has(child)) {
+				SizeComponent size = Mappers.size.get(child);
+				TransformComponent transform = Mappers.transform.get(child);
+				
+				batch.draw(
+					Mappers.texture.get(child).region,
+					0.0f, 0.0f,
+					0.0f, 0.0f,
+					size.width, size.height,
+					transform.scale.x, transform.scale.y,
+					0.0f
+				);
+			}
+			
+			drawChildren(child);
+		}
+	}
+	
+	private Entity createRoot() {
+		Entity entity = new Entity();
+		LayerComponent layer = new LayerComponent();
+		layer.names.addAll(LAYERS);
+		
+		entity.add(new RootComponent());
+		entity.add(new NodeComponent());
+		entity.add(new TransformComponent());
+		entity.add(layer);
+		
+		return entity;
+	}
+	
+	private Entity createNode(Entity parent, float x, float y, float angle) {
+		Entity entity = new Entity();
+		NodeComponent node = new NodeComponent();
+		TransformComponent transform = new TransformComponent();
+		ZIndexComponent index = new ZIndexComponent();
+		
+		transform.position.set(x, y);
+		transform.angle = angle;
+		index.layer = LAYERS[1];
+		node.parent = parent;
+		Mappers.node.get(parent).children.add(entity);
+		
+		entity.add(node);
+		entity.add(transform);
+		entity.add(index);
+		
+		return entity;
+	}
+	
+	private void createSprite(Entity parent, int i, Texture texture) {
+		Entity entity = createNode(parent, i * 0.5f, (i % 7) * 0.5f, 0.0f);
+		TextureComponent textureComponent = new TextureComponent();
+		
+		textureComponent.region.setRegion(texture);
+		Mappers.index.get(entity).layer = LAYERS[i % LAYERS.length];
+		
+		entity.add(textureComponent);
+		entity.add(new SizeComponent());
+	}
+}
@@ -0,0 +1,107 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.siondream.libgdxjam.Env;
+
+/**
+ * Posing a crowd of grunt skeletons, AnimationState.update() plus apply(),
+ * from animations baked at BAKE_RATE or from their curves. World
+ * transforms cost the same either way and are left out.
+ *
+ * Skeletons cycle through every animation, starting at different times, and
+ * mix into the next one like the game does.
+ *
+ * Run with: gradlew benchmarks:jmh -PjmhArgs="SpinePoseBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpinePoseBenchmark {
+	private static final float MIX = 0.2f;
+	private static final int STEPS_PER_ANIMATION = 150;
+	private static final float BAKE_RATE = 60.0f;
+
+	@Param({ "32" })
+	public int skeletons;
+
+	@Param({ "true", "false" })
+	public boolean baked;
+
+	// Mesh deforms baked as well, only used when baked
+	@Param({ "true", "false" })
+	public boolean bakeDeform;
+
+	private SkeletonData data;
+	private Skeleton[] poses;
+	private AnimationState[] states;
+	private Array<Animation> animations;
+	private int step;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkGame.get();
+
+		data = Env.getGame().getAssetManager().get("spine/Grunt.json", SkeletonData.class);
+		data.bake(baked ? BAKE_RATE : 0.0f, bakeDeform);
+		animations = data.getAnimations();
+
+		AnimationStateData stateData = new AnimationStateData(data);
+		stateData.setDefaultMix(MIX);
+
+		poses = new Skeleton[skeletons];
+		states = new AnimationState[skeletons];
+
+		for (int i = 0; i < skeletons; ++i) {
+			poses[i] = new Skeleton(data);
+			poses[i].setSkin(data.getSkins().first());
+			states[i] = new AnimationState(stateData);
+			states[i].setAnimation(0, animations.get(i % animations.size), true);
+			states[i].update(i * Env.STEP);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		// Leave the shared skeleton data the way the loader baked it
+		data.bake(Env.SPINE_BAKE_RATE, Env.SPINE_BAKE_DEFORM);
+	}
+
+	@Benchmark
+	public void pose() {
+		if (++step % STEPS_PER_ANIMATION == 0) {
+			for (int i = 0; i < skeletons; ++i) {
+				int next = (i + step / STEPS_PER_ANIMATION) % animations.size;
+				states[i].setAnimation(0, animations.get(next), true);
+			}
+		}
+
+		for (int i = 0; i < skeletons; ++i) {
+			states[i].update(Env.STEP);
+			states[i].apply(poses[i]);
+		}
+	}
+}
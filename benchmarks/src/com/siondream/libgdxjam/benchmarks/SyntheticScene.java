@@ -0,0 +1,321 @@
+package com.siondream.libgdxjam.benchmarks;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.LayerComponent;
+import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.ObservableComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderGridComponent;
+import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
+import com.siondream.libgdxjam.ecs.components.RootComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
+import com.siondream.libgdxjam.ecs.components.agents.PlayerComponent;
+import com.siondream.libgdxjam.ecs.systems.AnimationControlSystem;
+import com.siondream.libgdxjam.ecs.systems.NodeSystem;
+import com.siondream.libgdxjam.ecs.systems.PhysicsSystem;
+import com.siondream.libgdxjam.ecs.systems.SpineSystem;
+import com.siondream.libgdxjam.ecs.systems.TransformSystem;
+import com.siondream.libgdxjam.ecs.systems.VisionSystem;
+import com.siondream.libgdxjam.ecs.systems.agents.CCTvSystem;
+import com.siondream.libgdxjam.ecs.systems.agents.GruntSystem;
+import com.siondream.libgdxjam.ecs.systems.ai.AttackSystem;
+import com.siondream.libgdxjam.ecs.systems.ai.IdleSystem;
+import com.siondream.libgdxjam.ecs.systems.ai.PatrolSystem;
+import com.siondream.libgdxjam.ecs.systems.ai.SleepSystem;
+import com.siondream.libgdxjam.ecs.systems.ai.StateMachineSystem;
+import com.siondream.libgdxjam.overlap.OverlapScene;
+import com.siondream.libgdxjam.overlap.plugins.CCTvPlugin;
+import com.siondream.libgdxjam.overlap.plugins.GruntPlugin;
+import com.siondream.libgdxjam.physics.Categories;
+import com.siondream.libgdxjam.physics.OccluderGrid;
+import com.siondream.libgdxjam.physics.PhysicsData;
+
+/**
+ * Generates a level-like scene of N grunts plus proportional CCTvs, boxes and
+ * players, and an engine with the simulation systems GameScreen registers.
+ *
+ * Layout is a long corridor: grunts patrol the floor, CCTvs sweep the space
+ * under the ceiling and players sit on top of it. Every observer has players
+ * in range and in its field of view so vision pays for real raycasts, but the
+ * ceiling occludes them, which keeps the AI out of attack/defeat paths that
+ * need a GameScreen.
+ *
+ * box2dlights needs a GL context for its frame buffers, so lights are not part
+ * of the headless scene.
+ */
+public class SyntheticScene {
+	public static final float GRUNT_SPACING = 3.0f;
+	public static final float CEILING_Y = 3.0f;
+	public static final int GRUNTS_PER_CCTV = 2;
+	public static final int GRUNTS_PER_PLAYER = 3;
+	public static final int BOXES_PER_GRUNT = 1;
+
+	private final Engine engine;
+	private final PhysicsSystem physicsSystem;
+	private final OverlapScene scene = new OverlapScene();
+	private Entity root;
+
+	public SyntheticScene() {
+		engine = createEngine();
+		physicsSystem = engine.getSystem(PhysicsSystem.class);
+	}
+
+	public Engine getEngine() {
+		return engine;
+	}
+
+	public World getWorld() {
+		return physicsSystem.getWorld();
+	}
+
+	public void build(int grunts) {
+		float width = grunts * GRUNT_SPACING + GRUNT_SPACING;
+
+		root = createRoot();
+
+		createWall(width * 0.5f, -0.5f, width * 0.5f, 0.5f);
+		createWall(width * 0.5f, CEILING_Y, width * 0.5f, 0.1f);
+
+		GruntPlugin gruntPlugin = new GruntPlugin(physicsSystem);
+		CCTvPlugin cctvPlugin = new CCTvPlugin();
+
+		for (int i = 0; i < grunts; ++i) {
+			float x = GRUNT_SPACING + i * GRUNT_SPACING;
+
+			gruntPlugin.load(scene, createNode(x, 0.0f), gruntProperties());
+
+			for (int j = 0; j < BOXES_PER_GRUNT; ++j) {
+				createBox(x + GRUNT_SPACING * 0.5f, 0.5f + j);
+			}
+
+			if (i % GRUNTS_PER_CCTV == 0) {
+				Entity cctv = createNode(x, CEILING_Y - 0.5f);
+				Mappers.transform.get(cctv).angle = 90.0f;
+				cctvPlugin.load(scene, cctv, cctvProperties());
+				// There is no GameScreen to report to
+				Mappers.cctv.get(cctv).playerReported = true;
+			}
+
+			if (i % GRUNTS_PER_PLAYER == 0) {
+				createPlayer(x + GRUNT_SPACING, CEILING_Y + 0.2f);
+			}
+		}
+
+		engine.addEntity(root);
+
+		for (Entity entity : engine.getEntitiesFor(Family.all(PlayerComponent.class).get())) {
+			Body body = Mappers.physics.get(entity).body;
+			Mappers.observable.get(entity).position.set(body.getWorldCenter());
+		}
+	}
+
+	public void dispose() {
+		engine.removeAllEntities();
+		physicsSystem.dispose();
+		engine.getSystem(SpineSystem.class).dispose();
+	}
+
+	private static Engine createEngine() {
+		Engine engine = new Engine();
+		Categories categories = Env.getGame().getCategories();
+
+		PhysicsSystem physicsSystem = new PhysicsSystem(categories);
+		SpineSystem spineSystem = new SpineSystem();
+		VisionSystem visionSystem = new VisionSystem();
+		StateMachineSystem stateMachineSystem = new StateMachineSystem();
+		PatrolSystem patrolSystem = new PatrolSystem();
+		IdleSystem idleSystem = new IdleSystem();
+		AttackSystem attackSystem = new AttackSystem(
+			physicsSystem.getWorld(),
+			physicsSystem.getCategories(),
+			physicsSystem.getHandler()
+		);
+		SleepSystem sleepSystem = new SleepSystem(Env.getGame().getTags());
+		GruntSystem gruntSystem = new GruntSystem(
+			visionSystem,
+			Env.getGame().getTags()
+		);
+		CCTvSystem cctvSystem = new CCTvSystem(
+			visionSystem,
+			Env.getGame().getTags()
+		);
+		AnimationControlSystem animationControlSystem = new AnimationControlSystem();
+		TransformSystem transformSystem = new TransformSystem();
+
+		// Same priorities as GameScreen.setupEngine
+		physicsSystem.priority = 1;
+		stateMachineSystem.priority = 1;
+		patrolSystem.priority = 2;
+		idleSystem.priority = 3;
+		attackSystem.priority = 4;
+		sleepSystem.priority = 5;
+		spineSystem.priority = 10;
+		visionSystem.priority = 11;
+		cctvSystem.priority = 12;
+		gruntSystem.priority = 13;
+		animationControlSystem.priority = 16;
+		transformSystem.priority = 17;
+
+		engine.addSystem(physicsSystem);
+		engine.addSystem(stateMachineSystem);
+		engine.addSystem(patrolSystem);
+		engine.addSystem(idleSystem);
+		engine.addSystem(attackSystem);
+		engine.addSystem(sleepSystem);
+		engine.addSystem(spineSystem);
+		engine.addSystem(cctvSystem);
+		engine.addSystem(gruntSystem);
+		engine.addSystem(animationControlSystem);
+		engine.addSystem(transformSystem);
+		engine.addSystem(visionSystem);
+
+		engine.addEntityListener(
+			Family.all(NodeComponent.class).get(),
+			new NodeSystem(engine)
+		);
+
+		return engine;
+	}
+
+	private Entity createRoot() {
+		Entity entity = new Entity();
+		LayerComponent layer = new LayerComponent();
+		layer.names.add("Default");
+
+		entity.add(new RootComponent());
+		entity.add(new NodeComponent());
+		entity.add(new TransformComponent());
+		entity.add(new OccluderGridComponent());
+		entity.add(layer);
+
+		return entity;
+	}
+
+	private Entity createNode(float x, float y) {
+		Entity entity = new Entity();
+		NodeComponent node = new NodeComponent();
+		TransformComponent transform = new TransformComponent();
+		ZIndexComponent index = new ZIndexComponent();
+
+		transform.position.set(x, y);
+		index.layer = "Default";
+		node.parent = root;
+		Mappers.node.get(root).children.add(entity);
+
+		entity.add(node);
+		entity.add(transform);
+		entity.add(index);
+
+		return entity;
+	}
+
+	private void createWall(float x, float y, float halfWidth, float halfHeight) {
+		Entity entity = createNode(x, y);
+		PhysicsComponent physics = new PhysicsComponent();
+
+		physics.body = createBoxBody(
+			entity,
+			BodyType.StaticBody,
+			halfWidth,
+			halfHeight,
+			physicsSystem.getCategories().getBits("level")
+		);
+
+		entity.add(physics);
+		Mappers.occluderGrid.get(root).grid.add(OccluderGrid.getOutline(physics.body), x, y, 0.0f);
+	}
+
+	private void createBox(float x, float y) {
+		Entity entity = createNode(x, y);
+		PhysicsComponent physics = new PhysicsComponent();
+
+		physics.body = createBoxBody(
+			entity,
+			BodyType.DynamicBody,
+			0.25f,
+			0.25f,
+			physicsSystem.getCategories().getBits("box")
+		);
+
+		OccluderComponent occluder = new OccluderComponent();
+		occluder.outline = OccluderGrid.getOutline(physics.body);
+
+		entity.add(physics);
+		entity.add(occluder);
+	}
+
+	private void createPlayer(float x, float y) {
+		Entity entity = createNode(x, y);
+		PhysicsComponent physics = new PhysicsComponent();
+		AssetManager assetManager = Env.getGame().getAssetManager();
+		PhysicsData physicsData = assetManager.get(
+			Env.PHYSICS_FOLDER + "/player-stand.json",
+			PhysicsData.class
+		);
+
+		physics.body = physicsData.createBody(getWorld(), entity);
+
+		entity.add(physics);
+		entity.add(new PlayerComponent());
+		entity.add(new ObservableComponent());
+	}
+
+	private Body createBoxBody(Entity entity,
+							   BodyType type,
+							   float halfWidth,
+							   float halfHeight,
+							   short category) {
+		BodyDef bodyDef = new BodyDef();
+		bodyDef.type = type;
+
+		Body body = getWorld().createBody(bodyDef);
+		body.setUserData(entity);
+
+		PolygonShape shape = new PolygonShape();
+		shape.setAsBox(halfWidth, halfHeight);
+
+		FixtureDef fixtureDef = new FixtureDef();
+		fixtureDef.shape = shape;
+		fixtureDef.density = 1.0f;
+		fixtureDef.friction = 0.9f;
+		fixtureDef.filter.categoryBits = category;
+
+		body.createFixture(fixtureDef);
+		shape.dispose();
+
+		return body;
+	}
+
+	private static ObjectMap<String, String> gruntProperties() {
+		ObjectMap<String, String> map = new ObjectMap<String, String>();
+		map.put("initialState", "patrol");
+		map.put("leftWalkableArea", "1.0");
+		map.put("rightWalkableArea", "1.0");
+		map.put("leftAreaWaitSeconds", "0.5");
+		map.put("rightAreaWaitSeconds", "0.5");
+		return map;
+	}
+
+	private static ObjectMap<String, String> cctvProperties() {
+		ObjectMap<String, String> map = new ObjectMap<String, String>();
+		map.put("angularVelocity", "40.0");
+		map.put("minAngle", "30.0");
+		map.put("maxAngle", "150.0");
+		map.put("waitTimeMinAngle", "0.5");
+		map.put("waitTimeMaxAngle", "0.5");
+		return map;
+	}
+}
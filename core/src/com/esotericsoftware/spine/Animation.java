@@ -41,6 +41,8 @@ public class Animation {
 	final String name;
 	private final Array<Timeline> timelines;
 	private float duration;
+	private BakedAnimation baked;
+	int index = -1;
 
 	public Animation (String name, Array<Timeline> timelines, float duration) {
 		if (name == null) throw new IllegalArgumentException("name cannot be null.");
@@ -63,10 +65,34 @@ public class Animation {
 		this.duration = duration;
 	}
 
+	/** Position in {@link SkeletonData#getAnimations()}, -1 for animations that were not loaded into one. */
+	public int getIndex () {
+		return index;
+	}
+
+	/** @return May be null. */
+	public BakedAnimation getBaked () {
+		return baked;
+	}
+
+	/** @param baked May be null to evaluate the timelines again. */
+	public void setBaked (BakedAnimation baked) {
+		this.baked = baked;
+	}
+
 	/** Poses the skeleton at the specified time for this animation.
 	 * @param lastTime The last time the animation was applied.
 	 * @param events Any triggered events are added. */
 	public void apply (Skeleton skeleton, float lastTime, float time, boolean loop, Array<Event> events) {
+		apply(skeleton, lastTime, time, loop, events, null);
+	}
+
+	/** Poses the skeleton at the specified time for this animation.
+	 * @param lastTime The last time the animation was applied.
+	 * @param events Any triggered events are added.
+	 * @param cursors May be null. Keyframes found by the last call with the same cursors, see {@link #search(float[], float, int,
+	 *           int[], int)}. At least as long as the timelines. */
+	public void apply (Skeleton skeleton, float lastTime, float time, boolean loop, Array<Event> events, int[] cursors) {
 		if (skeleton == null) throw new IllegalArgumentException("skeleton cannot be null.");
 
 		if (loop && duration != 0) {
@@ -74,9 +100,12 @@ public class Animation {
 			lastTime %= duration;
 		}
 
-		Array<Timeline> timelines = this.timelines;
-		for (int i = 0, n = timelines.size; i < n; i++)
-			timelines.get(i).apply(skeleton, lastTime, time, events, 1);
+		if (baked != null) {
+			baked.apply(skeleton, lastTime, time, events, 1);
+			return;
+		}
+
+		applyTimelines(skeleton, lastTime, time, events, 1, cursors);
 	}
 
 	/** Poses the skeleton at the specified time for this animation mixed with the current pose.
@@ -84,6 +113,16 @@ public class Animation {
 	 * @param events Any triggered events are added.
 	 * @param alpha The amount of this animation that affects the current pose. */
 	public void mix (Skeleton skeleton, float lastTime, float time, boolean loop, Array<Event> events, float alpha) {
+		mix(skeleton, lastTime, time, loop, events, alpha, null);
+	}
+
+	/** Poses the skeleton at the specified time for this animation mixed with the current pose.
+	 * @param lastTime The last time the animation was applied.
+	 * @param events Any triggered events are added.
+	 * @param alpha The amount of this animation that affects the current pose.
+	 * @param cursors May be null, see {@link #apply(Skeleton, float, float, boolean, Array, int[])}. */
+	public void mix (Skeleton skeleton, float lastTime, float time, boolean loop, Array<Event> events, float alpha,
+		int[] cursors) {
 		if (skeleton == null) throw new IllegalArgumentException("skeleton cannot be null.");
 
 		if (loop && duration != 0) {
@@ -91,9 +130,44 @@ public class Animation {
 			lastTime %= duration;
 		}
 
+		if (baked != null) {
+			baked.apply(skeleton, lastTime, time, events, alpha);
+			return;
+		}
+
+		applyTimelines(skeleton, lastTime, time, events, alpha, cursors);
+	}
+
+	private void applyTimelines (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha, int[] cursors) {
+		Array<Timeline> timelines = this.timelines;
+		if (cursors == null) {
+			for (int i = 0, n = timelines.size; i < n; i++)
+				timelines.get(i).apply(skeleton, lastTime, time, events, alpha);
+			return;
+		}
+		for (int i = 0, n = timelines.size; i < n; i++) {
+			Timeline timeline = timelines.get(i);
+			if (timeline instanceof CurveTimeline)
+				((CurveTimeline)timeline).apply(skeleton, lastTime, time, events, alpha, cursors, i);
+			else
+				timeline.apply(skeleton, lastTime, time, events, alpha);
+		}
+	}
+
+	/** Collects the events fired between lastTime and time without posing anything.
+	 * @param lastTime The last time the animation was applied.
+	 * @param events Any triggered events are added. */
+	public void fireEvents (float lastTime, float time, boolean loop, Array<Event> events) {
+		if (loop && duration != 0) {
+			time %= duration;
+			lastTime %= duration;
+		}
+
 		Array<Timeline> timelines = this.timelines;
-		for (int i = 0, n = timelines.size; i < n; i++)
-			timelines.get(i).apply(skeleton, lastTime, time, events, alpha);
+		for (int i = 0, n = timelines.size; i < n; i++) {
+			Timeline timeline = timelines.get(i);
+			if (timeline instanceof EventTimeline) timeline.apply(null, lastTime, time, events, 1);
+		}
 	}
 
 	public String getName () {
@@ -138,6 +212,26 @@ public class Animation {
 		}
 	}
 
+	/** Same as {@link #binarySearch(float[], float, int)}, but first tries the index found last time for the cursor and the one
+	 * after it. Playback mostly moves forward by less than a keyframe, seeking and looping fall back to the binary search. An
+	 * index that is not on a frame's time, stored by a timeline with another stride, is never trusted.
+	 * @param cursors May be null to always search. */
+	static int search (float[] values, float target, int step, int[] cursors, int cursor) {
+		if (cursors == null) return binarySearch(values, target, step);
+		int index = cursors[cursor];
+		if (index >= step && index < values.length && index % step == 0 && values[index - step] <= target) {
+			if (values[index] > target) return index;
+			index += step;
+			if (index < values.length && values[index] > target) {
+				cursors[cursor] = index;
+				return index;
+			}
+		}
+		index = binarySearch(values, target, step);
+		cursors[cursor] = index;
+		return index;
+	}
+
 	static int linearSearch (float[] values, float target, int step) {
 		for (int i = 0, last = values.length - step; i <= last; i += step)
 			if (values[i] > target) return i;
@@ -162,6 +256,16 @@ public class Animation {
 			curves = new float[(frameCount - 1) * BEZIER_SIZE];
 		}
 
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+			apply(skeleton, lastTime, time, events, alpha, null, 0);
+		}
+
+		/** Same as {@link #apply(Skeleton, float, float, Array, float)}, finding keyframes from a cursor.
+		 * @param cursors May be null.
+		 * @param cursor Index in cursors for this timeline. */
+		abstract public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha,
+			int[] cursors, int cursor);
+
 		public int getFrameCount () {
 			return curves.length / BEZIER_SIZE + 1;
 		}
@@ -269,7 +373,8 @@ public class Animation {
 			frames[frameIndex + 1] = angle;
 		}
 
-		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha, int[] cursors,
+			int cursor) {
 			float[] frames = this.frames;
 			if (time < frames[0]) return; // Time is before first frame.
 
@@ -286,7 +391,7 @@ public class Animation {
 			}
 
 			// Interpolate between the previous frame and the current frame.
-			int frameIndex = binarySearch(frames, time, 2);
+			int frameIndex = search(frames, time, 2, cursors, cursor);
 			float prevFrameValue = frames[frameIndex - 1];
 			float frameTime = frames[frameIndex];
 			float percent = MathUtils.clamp(1 - (time - frameTime) / (frames[frameIndex + PREV_FRAME_TIME] - frameTime), 0, 1);
@@ -339,7 +444,8 @@ public class Animation {
 			frames[frameIndex + 2] = y;
 		}
 
-		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha, int[] cursors,
+			int cursor) {
 			float[] frames = this.frames;
 			if (time < frames[0]) return; // Time is before first frame.
 
@@ -352,7 +458,7 @@ public class Animation {
 			}
 
 			// Interpolate between the previous frame and the current frame.
-			int frameIndex = binarySearch(frames, time, 3);
+			int frameIndex = search(frames, time, 3, cursors, cursor);
 			float prevFrameX = frames[frameIndex - 2];
 			float prevFrameY = frames[frameIndex - 1];
 			float frameTime = frames[frameIndex];
@@ -369,7 +475,8 @@ public class Animation {
 			super(frameCount);
 		}
 
-		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha, int[] cursors,
+			int cursor) {
 			float[] frames = this.frames;
 			if (time < frames[0]) return; // Time is before first frame.
 
@@ -381,7 +488,7 @@ public class Animation {
 			}
 
 			// Interpolate between the previous frame and the current frame.
-			int frameIndex = binarySearch(frames, time, 3);
+			int frameIndex = search(frames, time, 3, cursors, cursor);
 			float prevFrameX = frames[frameIndex - 2];
 			float prevFrameY = frames[frameIndex - 1];
 			float frameTime = frames[frameIndex];
@@ -432,7 +539,8 @@ public class Animation {
 			frames[frameIndex + 4] = a;
 		}
 
-		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha, int[] cursors,
+			int cursor) {
 			float[] frames = this.frames;
 			if (time < frames[0]) return; // Time is before first frame.
 
@@ -446,7 +554,7 @@ public class Animation {
 				a = frames[i];
 			} else {
 				// Interpolate between the previous frame and the current frame.
-				int frameIndex = binarySearch(frames, time, 5);
+				int frameIndex = search(frames, time, 5, cursors, cursor);
 				float prevFrameR = frames[frameIndex - 4];
 				float prevFrameG = frames[frameIndex - 3];
 				float prevFrameB = frames[frameIndex - 2];
@@ -669,7 +777,8 @@ public class Animation {
 			frameVertices[frameIndex] = vertices;
 		}
 
-		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> firedEvents, float alpha) {
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> firedEvents, float alpha, int[] cursors,
+			int cursor) {
 			Slot slot = skeleton.slots.get(slotIndex);
 			if (slot.getAttachment() != attachment) return;
 
@@ -697,7 +806,7 @@ public class Animation {
 			}
 
 			// Interpolate between the previous frame and the current frame.
-			int frameIndex = binarySearch(frames, time);
+			int frameIndex = search(frames, time, 1, cursors, cursor);
 			float frameTime = frames[frameIndex];
 			float percent = MathUtils.clamp(1 - (time - frameTime) / (frames[frameIndex - 1] - frameTime), 0, 1);
 			percent = getCurvePercent(frameIndex - 1, percent);
@@ -753,7 +862,8 @@ public class Animation {
 			frames[frameIndex + 2] = bendDirection;
 		}
 
-		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+		public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha, int[] cursors,
+			int cursor) {
 			float[] frames = this.frames;
 			if (time < frames[0]) return; // Time is before first frame.
 
@@ -766,7 +876,7 @@ public class Animation {
 			}
 
 			// Interpolate between the previous frame and the current frame.
-			int frameIndex = binarySearch(frames, time, 3);
+			int frameIndex = search(frames, time, 3, cursors, cursor);
 			float prevFrameMix = frames[frameIndex + PREV_FRAME_MIX];
 			float frameTime = frames[frameIndex];
 			float percent = MathUtils.clamp(1 - (time - frameTime) / (frames[frameIndex + PREV_FRAME_TIME] - frameTime), 0, 1);
@@ -32,17 +32,29 @@
 package com.esotericsoftware.spine;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.Pool.Poolable;
 
 /** Stores state for an animation and automatically mixes between animations. */
 public class AnimationState {
+	static private final int START = 0, END = 1, EVENT = 2, COMPLETE = 3;
+
 	private final AnimationStateData data;
 	private Array<TrackEntry> tracks = new Array();
 	private final Array<Event> events = new Array();
 	private final Array<AnimationStateListener> listeners = new Array();
 	private float timeScale = 1;
 
+	// Notifications held back while deferred: type, track index and loop count per entry, plus the entry listener, event and
+	// the track's current entry at the time. Entries freed meanwhile are kept out of the pool until drained.
+	private boolean deferred;
+	private final IntArray queue = new IntArray();
+	private final Array<AnimationStateListener> queueListeners = new Array<AnimationStateListener>();
+	private final Array<Event> queueEvents = new Array<Event>();
+	private final Array<TrackEntry> queueCurrents = new Array<TrackEntry>();
+	private final Array<TrackEntry> pendingFree = new Array<TrackEntry>();
+
 	private Pool<TrackEntry> trackEntryPool = new Pool() {
 		protected Object newObject () {
 			return new TrackEntry();
@@ -79,6 +91,44 @@ public class AnimationState {
 	}
 
 	public void apply (Skeleton skeleton) {
+		if (skeleton == null) throw new IllegalArgumentException("skeleton cannot be null.");
+		applyTracks(skeleton);
+	}
+
+	/** Does what {@link #apply(Skeleton)} does except posing a skeleton: events and completions are fired and the tracks move
+	 * on. Cheap enough to run every step for skeletons nobody sees, {@link #pose(Skeleton)} catches their pose up when needed. */
+	public void applyEvents () {
+		applyTracks(null);
+	}
+
+	/** Poses the skeleton for the current track times. Nothing is fired and the tracks are left as they are, so it can be
+	 * called any number of times after {@link #applyEvents()}. */
+	public void pose (Skeleton skeleton) {
+		if (skeleton == null) throw new IllegalArgumentException("skeleton cannot be null.");
+
+		for (int i = 0; i < tracks.size; i++) {
+			TrackEntry current = tracks.get(i);
+			if (current == null) continue;
+
+			float time = current.time;
+			if (!current.loop && time > current.endTime) time = current.endTime;
+
+			TrackEntry previous = current.previous;
+			if (previous == null)
+				current.animation.mix(skeleton, time, time, current.loop, null, current.mix, current.getCursors());
+			else {
+				float previousTime = previous.time;
+				if (!previous.loop && previousTime > previous.endTime) previousTime = previous.endTime;
+				previous.animation.apply(skeleton, previousTime, previousTime, previous.loop, null, previous.getCursors());
+
+				float alpha = Math.min(current.mixTime / current.mixDuration * current.mix, 1);
+				current.animation.mix(skeleton, time, time, current.loop, null, alpha, current.getCursors());
+			}
+		}
+	}
+
+	/** @param skeleton May be null to only fire events. */
+	private void applyTracks (Skeleton skeleton) {
 		Array<Event> events = this.events;
 		int listenerCount = listeners.size;
 
@@ -95,36 +145,34 @@ public class AnimationState {
 			if (!loop && time > endTime) time = endTime;
 
 			TrackEntry previous = current.previous;
-			if (previous == null)
-				current.animation.mix(skeleton, lastTime, time, loop, events, current.mix);
-			else {
+			if (previous == null) {
+				if (skeleton != null)
+					current.animation.mix(skeleton, lastTime, time, loop, events, current.mix, current.getCursors());
+				else
+					current.animation.fireEvents(lastTime, time, loop, events);
+			} else {
 				float previousTime = previous.time;
 				if (!previous.loop && previousTime > previous.endTime) previousTime = previous.endTime;
-				previous.animation.apply(skeleton, previousTime, previousTime, previous.loop, null);
+				if (skeleton != null) previous.animation.apply(skeleton, previousTime, previousTime, previous.loop, null, previous.getCursors());
 
 				float alpha = current.mixTime / current.mixDuration * current.mix;
 				if (alpha >= 1) {
 					alpha = 1;
-					trackEntryPool.free(previous);
+					free(previous);
 					current.previous = null;
 				}
-				current.animation.mix(skeleton, lastTime, time, loop, events, alpha);
+				if (skeleton != null)
+					current.animation.mix(skeleton, lastTime, time, loop, events, alpha, current.getCursors());
+				else
+					current.animation.fireEvents(lastTime, time, loop, events);
 			}
 
-			for (int ii = 0, nn = events.size; ii < nn; ii++) {
-				Event event = events.get(ii);
-				if (current.listener != null) current.listener.event(i, event);
-				for (int iii = 0; iii < listenerCount; iii++)
-					listeners.get(iii).event(i, event);
-			}
+			for (int ii = 0, nn = events.size; ii < nn; ii++)
+				notify(EVENT, current.listener, i, events.get(ii), 0, listenerCount);
 
 			// Check if completed the animation or a loop iteration.
-			if (loop ? (lastTime % endTime > time % endTime) : (lastTime < endTime && time >= endTime)) {
-				int count = (int)(time / endTime);
-				if (current.listener != null) current.listener.complete(i, count);
-				for (int ii = 0, nn = listeners.size; ii < nn; ii++)
-					listeners.get(ii).complete(i, count);
-			}
+			if (loop ? (lastTime % endTime > time % endTime) : (lastTime < endTime && time >= endTime))
+				notify(COMPLETE, current.listener, i, null, (int)(time / endTime), listeners.size);
 
 			current.lastTime = current.time;
 		}
@@ -141,24 +189,41 @@ public class AnimationState {
 		TrackEntry current = tracks.get(trackIndex);
 		if (current == null) return;
 
-		if (current.listener != null) current.listener.end(trackIndex);
-		for (int i = 0, n = listeners.size; i < n; i++)
-			listeners.get(i).end(trackIndex);
+		notify(END, current.listener, trackIndex, null, 0, listeners.size);
 
 		tracks.set(trackIndex, null);
 
 		freeAll(current);
-		if (current.previous != null) trackEntryPool.free(current.previous);
+		if (current.previous != null) free(current.previous);
 	}
 
 	private void freeAll (TrackEntry entry) {
 		while (entry != null) {
 			TrackEntry next = entry.next;
-			trackEntryPool.free(entry);
+			free(entry);
 			entry = next;
 		}
 	}
 
+	private void free (TrackEntry entry) {
+		if (deferred || queue.size > 0) {
+			if (!pendingFree.contains(entry, true)) pendingFree.add(entry);
+		} else
+			trackEntryPool.free(entry);
+	}
+
+	/** Whether a pending entry was put back on a track by a listener while draining. */
+	private boolean isUsed (TrackEntry entry) {
+		for (int i = 0; i < tracks.size; i++) {
+			TrackEntry current = tracks.get(i);
+			if (current == null) continue;
+			if (current.previous == entry) return true;
+			for (TrackEntry next = current; next != null; next = next.next)
+				if (next == entry) return true;
+		}
+		return false;
+	}
+
 	private TrackEntry expandToIndex (int index) {
 		if (index < tracks.size) return tracks.get(index);
 		tracks.ensureCapacity(index - tracks.size + 1);
@@ -172,9 +237,7 @@ public class AnimationState {
 			TrackEntry previous = current.previous;
 			current.previous = null;
 
-			if (current.listener != null) current.listener.end(index);
-			for (int i = 0, n = listeners.size; i < n; i++)
-				listeners.get(i).end(index);
+			notify(END, current.listener, index, null, 0, listeners.size);
 
 			entry.mixDuration = data.getMix(current.animation, entry.animation);
 			if (entry.mixDuration > 0) {
@@ -186,16 +249,89 @@ public class AnimationState {
 				} else
 					entry.previous = current;
 			} else
-				trackEntryPool.free(current);
+				free(current);
 
-			if (previous != null) trackEntryPool.free(previous);
+			if (previous != null) free(previous);
 		}
 
 		tracks.set(index, entry);
 
-		if (entry.listener != null) entry.listener.start(index);
-		for (int i = 0, n = listeners.size; i < n; i++)
-			listeners.get(i).start(index);
+		notify(START, entry.listener, index, null, 0, listeners.size);
+	}
+
+	private void notify (int type, AnimationStateListener entryListener, int trackIndex, Event event, int loopCount,
+		int listenerCount) {
+		if (deferred) {
+			queue.add(type);
+			queue.add(trackIndex);
+			queue.add(loopCount);
+			queueListeners.add(entryListener);
+			queueEvents.add(event);
+			queueCurrents.add(trackIndex < tracks.size ? tracks.get(trackIndex) : null);
+			return;
+		}
+
+		switch (type) {
+		case START:
+			if (entryListener != null) entryListener.start(trackIndex);
+			for (int i = 0; i < listenerCount; i++)
+				listeners.get(i).start(trackIndex);
+			break;
+		case END:
+			if (entryListener != null) entryListener.end(trackIndex);
+			for (int i = 0; i < listenerCount; i++)
+				listeners.get(i).end(trackIndex);
+			break;
+		case EVENT:
+			if (entryListener != null) entryListener.event(trackIndex, event);
+			for (int i = 0; i < listenerCount; i++)
+				listeners.get(i).event(trackIndex, event);
+			break;
+		case COMPLETE:
+			if (entryListener != null) entryListener.complete(trackIndex, loopCount);
+			for (int i = 0; i < listenerCount; i++)
+				listeners.get(i).complete(trackIndex, loopCount);
+			break;
+		}
+	}
+
+	/** While deferred, listeners are not called. Their notifications are queued until {@link #drain()}, so the state can be
+	 * updated and applied on a thread other than the one the listeners expect. */
+	public void setDeferred (boolean deferred) {
+		this.deferred = deferred;
+	}
+
+	public boolean isDeferred () {
+		return deferred;
+	}
+
+	/** Calls the listeners for the notifications queued while deferred, in the order they happened. Listeners added since
+	 * receive them as well. While a notification is delivered, {@link #getCurrent(int)} returns what it did when it happened,
+	 * so listeners can tell which animation started or ended. */
+	public void drain () {
+		boolean deferred = this.deferred;
+		this.deferred = false;
+		for (int i = 0, o = 0; i < queue.size; i += 3, o++) {
+			int trackIndex = queue.get(i + 1);
+			int size = tracks.size;
+			TrackEntry latest = expandToIndex(trackIndex), current = queueCurrents.get(o);
+			tracks.set(trackIndex, current);
+			notify(queue.get(i), queueListeners.get(o), trackIndex, queueEvents.get(o), queue.get(i + 2), listeners.size);
+			if (tracks.get(trackIndex) == current) { // Unless the listener changed the track.
+				tracks.set(trackIndex, latest);
+				if (trackIndex >= size) tracks.size = size;
+			}
+		}
+		queue.clear();
+		queueListeners.clear();
+		queueEvents.clear();
+		queueCurrents.clear();
+		for (int i = 0, n = pendingFree.size; i < n; i++) {
+			TrackEntry entry = pendingFree.get(i);
+			if (!isUsed(entry)) trackEntryPool.free(entry);
+		}
+		pendingFree.clear();
+		this.deferred = deferred;
 	}
 
 	/** @see #setAnimation(int, Animation, boolean) */
@@ -306,6 +442,7 @@ public class AnimationState {
 		float mixTime, mixDuration;
 		AnimationStateListener listener;
 		float mix = 1;
+		int[] cursors = new int[0]; // Kept across pooling, cleared whenever the animation may change.
 
 		public void reset () {
 			next = null;
@@ -315,13 +452,30 @@ public class AnimationState {
 			timeScale = 1;
 			lastTime = -1; // Trigger events on frame zero.
 			time = 0;
+			clearCursors();
 		}
 
 		public Animation getAnimation () {
 			return animation;
 		}
 
+		/** Keyframes the animation's timelines found when last applied for this entry, see {@link Animation#search(float[], float,
+		 * int, int[], int)}. */
+		int[] getCursors () {
+			int count = animation.getTimelines().size;
+			if (cursors.length < count) cursors = new int[count];
+			return cursors;
+		}
+
+		/** A cursor is only meaningful for the timeline that stored it, 0 makes the next search a binary one. */
+		private void clearCursors () {
+			int[] cursors = this.cursors;
+			for (int i = 0, n = cursors.length; i < n; i++)
+				cursors[i] = 0;
+		}
+
 		public void setAnimation (Animation animation) {
+			if (this.animation != animation) clearCursors();
 			this.animation = animation;
 		}
 
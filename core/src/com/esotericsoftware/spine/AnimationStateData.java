@@ -31,17 +31,21 @@
 
 package com.esotericsoftware.spine;
 
-import com.badlogic.gdx.utils.ObjectFloatMap;
+import java.util.Arrays;
 
-/** Stores mixing times between animations. */
+/** Stores mixing times between animations, in a dense table indexed by {@link Animation#getIndex()}. It only reads after the
+ * mixes are set, so a single instance can be shared by every skeleton of the same {@link SkeletonData}. */
 public class AnimationStateData {
 	private final SkeletonData skeletonData;
-	final ObjectFloatMap<Key> animationToMixTime = new ObjectFloatMap();
-	final Key tempKey = new Key();
+	private final int animationCount;
+	private final float[] mixes; // from * animationCount + to, NaN for the default mix.
 	float defaultMix;
 
 	public AnimationStateData (SkeletonData skeletonData) {
 		this.skeletonData = skeletonData;
+		animationCount = skeletonData.animations.size;
+		mixes = new float[animationCount * animationCount];
+		Arrays.fill(mixes, Float.NaN);
 	}
 
 	public SkeletonData getSkeletonData () {
@@ -59,16 +63,21 @@ public class AnimationStateData {
 	public void setMix (Animation from, Animation to, float duration) {
 		if (from == null) throw new IllegalArgumentException("from cannot be null.");
 		if (to == null) throw new IllegalArgumentException("to cannot be null.");
-		Key key = new Key();
-		key.a1 = from;
-		key.a2 = to;
-		animationToMixTime.put(key, duration);
+		if (!contains(from)) throw new IllegalArgumentException("Animation is not from this skeleton data: " + from);
+		if (!contains(to)) throw new IllegalArgumentException("Animation is not from this skeleton data: " + to);
+		mixes[from.index * animationCount + to.index] = duration;
 	}
 
+	/** Whether a mix was set between the two animations, rather than falling back to the default one. */
+	public boolean hasMix (Animation from, Animation to) {
+		return contains(from) && contains(to) && !Float.isNaN(mixes[from.index * animationCount + to.index]);
+	}
+
+	/** Safe to call from several threads at once, as long as no mix is being set. */
 	public float getMix (Animation from, Animation to) {
-		tempKey.a1 = from;
-		tempKey.a2 = to;
-		return animationToMixTime.get(tempKey, defaultMix);
+		if (!contains(from) || !contains(to)) return defaultMix;
+		float mix = mixes[from.index * animationCount + to.index];
+		return Float.isNaN(mix) ? defaultMix : mix;
 	}
 
 	public float getDefaultMix () {
@@ -79,24 +88,8 @@ public class AnimationStateData {
 		this.defaultMix = defaultMix;
 	}
 
-	static class Key {
-		Animation a1, a2;
-
-		public int hashCode () {
-			return 31 * (31 + a1.hashCode()) + a2.hashCode();
-		}
-
-		public boolean equals (Object obj) {
-			if (this == obj) return true;
-			if (obj == null) return false;
-			Key other = (Key)obj;
-			if (a1 == null) {
-				if (other.a1 != null) return false;
-			} else if (!a1.equals(other.a1)) return false;
-			if (a2 == null) {
-				if (other.a2 != null) return false;
-			} else if (!a2.equals(other.a2)) return false;
-			return true;
-		}
+	private boolean contains (Animation animation) {
+		int index = animation.index;
+		return index >= 0 && index < animationCount && skeletonData.animations.get(index) == animation;
 	}
 }
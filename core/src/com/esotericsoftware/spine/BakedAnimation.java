@@ -0,0 +1,389 @@
+package com.esotericsoftware.spine;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.Animation.AttachmentTimeline;
+import com.esotericsoftware.spine.Animation.ColorTimeline;
+import com.esotericsoftware.spine.Animation.CurveTimeline;
+import com.esotericsoftware.spine.Animation.DrawOrderTimeline;
+import com.esotericsoftware.spine.Animation.FfdTimeline;
+import com.esotericsoftware.spine.Animation.RotateTimeline;
+import com.esotericsoftware.spine.Animation.ScaleTimeline;
+import com.esotericsoftware.spine.Animation.Timeline;
+import com.esotericsoftware.spine.Animation.TranslateTimeline;
+
+/** An {@link Animation} sampled at evenly spaced frames, so posing it is a lerp between two stored frames instead of a binary
+ * search and a bezier curve per timeline.
+ * <p>
+ * Bone rotation, translation and scale, slot color and, optionally, mesh deforms are stored as absolute values, one row of floats
+ * per frame with every timeline next to each other. Mixing with alpha works the same as the timelines do. A segment between two
+ * frames a stepped key falls in is evaluated by its timeline, so steps stay sharp.
+ * <p>
+ * Attachments and draw order are discrete and store, per frame, the key that is active. Posing moves on from it to the keys
+ * between the frame and the time, so they change at the exact key time, like the timelines.
+ * <p>
+ * Events and any other timeline are still evaluated live.
+ * @see SkeletonData#bake(float, boolean) */
+public class BakedAnimation {
+	static private final int LIVE = 0, ROTATE = 1, TRANSLATE = 2, SCALE = 3, COLOR = 4, FFD = 5, ATTACHMENT = 6, DRAW_ORDER = 7;
+
+	private final Timeline[] timelines;
+	private final int[] kinds;
+	private final int[] offsets; // Into a row of values or keys, by kind.
+	private final int[] targets; // Bone or slot index.
+	private final float[] startTimes; // First key of each timeline, it is not applied before.
+
+	private final int frameCount;
+	private final float frameTime;
+	private final float[] values; // frameCount rows of valueStride floats.
+	private final int valueStride;
+	private final int[] keys; // frameCount rows of keyStride key indices, -1 before the first key.
+	private final int keyStride;
+	private final boolean[] live; // frameCount - 1 rows of one flag per timeline, the segment has a stepped key.
+
+	/** @param skeleton Scratch skeleton for the animation's skeleton data, posed while sampling.
+	 * @param framesPerSecond Rounded up so frames fall on both ends of the animation.
+	 * @param deform Whether to sample mesh deforms, false evaluates them live and takes less memory. */
+	public BakedAnimation (Animation animation, Skeleton skeleton, float framesPerSecond, boolean deform) {
+		if (animation == null) throw new IllegalArgumentException("animation cannot be null.");
+		if (skeleton == null) throw new IllegalArgumentException("skeleton cannot be null.");
+		if (framesPerSecond <= 0) throw new IllegalArgumentException("framesPerSecond must be > 0: " + framesPerSecond);
+
+		Array<Timeline> timelines = animation.getTimelines();
+		int count = timelines.size;
+		this.timelines = timelines.toArray(Timeline.class);
+		kinds = new int[count];
+		offsets = new int[count];
+		targets = new int[count];
+		startTimes = new float[count];
+
+		int valueStride = 0, keyStride = 0;
+		for (int i = 0; i < count; i++) {
+			Timeline timeline = timelines.get(i);
+			int kind = kindOf(timeline, deform);
+			kinds[i] = kind;
+			switch (kind) {
+			case ROTATE:
+				offsets[i] = valueStride;
+				valueStride += 1;
+				targets[i] = ((RotateTimeline)timeline).boneIndex;
+				startTimes[i] = ((RotateTimeline)timeline).getFrames()[0];
+				break;
+			case TRANSLATE:
+			case SCALE:
+				offsets[i] = valueStride;
+				valueStride += 2;
+				targets[i] = ((TranslateTimeline)timeline).boneIndex;
+				startTimes[i] = ((TranslateTimeline)timeline).getFrames()[0];
+				break;
+			case COLOR:
+				offsets[i] = valueStride;
+				valueStride += 4;
+				targets[i] = ((ColorTimeline)timeline).slotIndex;
+				startTimes[i] = ((ColorTimeline)timeline).getFrames()[0];
+				break;
+			case FFD:
+				offsets[i] = valueStride;
+				valueStride += ((FfdTimeline)timeline).getVertices()[0].length;
+				startTimes[i] = ((FfdTimeline)timeline).getFrames()[0];
+				break;
+			case ATTACHMENT:
+			case DRAW_ORDER:
+				offsets[i] = keyStride;
+				keyStride += 1;
+				break;
+			}
+		}
+		this.valueStride = valueStride;
+		this.keyStride = keyStride;
+
+		float duration = animation.getDuration();
+		frameCount = Math.max(2, (int)Math.ceil(duration * framesPerSecond) + 1);
+		frameTime = duration / (frameCount - 1);
+		values = new float[frameCount * valueStride];
+		keys = new int[frameCount * keyStride];
+		live = new boolean[(frameCount - 1) * count];
+
+		for (int frame = 0; frame < frameCount; frame++) {
+			float time = frame == frameCount - 1 ? duration : frame * frameTime;
+			for (int i = 0; i < count; i++)
+				sample(skeleton, i, frame, time);
+		}
+
+		for (int i = 0; i < count; i++)
+			if (kinds[i] >= ROTATE && kinds[i] <= FFD) markSteps(i);
+	}
+
+	/** Floats and key indices stored, a measure of the memory taken. */
+	public int getSize () {
+		return values.length + keys.length;
+	}
+
+	public int getFrameCount () {
+		return frameCount;
+	}
+
+	/** Same as {@link Animation#mix(Skeleton, float, float, boolean, Array, float)} with time already wrapped for looping. */
+	public void apply (Skeleton skeleton, float lastTime, float time, Array<Event> events, float alpha) {
+		int frame = frameTime > 0 ? (int)(time / frameTime) : 0;
+		float percent;
+		if (frame >= frameCount - 1) {
+			frame = frameCount - 2;
+			percent = 1;
+		} else if (frameTime == 0)
+			percent = 0; // Zero duration, both frames hold the same pose.
+		else
+			percent = Math.max(time / frameTime - frame, 0);
+
+		float[] values = this.values;
+		int row = frame * valueStride, next = row + valueStride;
+		int[] kinds = this.kinds;
+		for (int i = 0, n = kinds.length; i < n; i++) {
+			int kind = kinds[i];
+			if (kind == LIVE || kind == ATTACHMENT || kind == DRAW_ORDER) {
+				if (kind == LIVE)
+					timelines[i].apply(skeleton, lastTime, time, events, alpha);
+				else if (kind == ATTACHMENT)
+					applyAttachment(skeleton, (AttachmentTimeline)timelines[i], offsets[i], frame, lastTime, time);
+				else
+					applyDrawOrder(skeleton, (DrawOrderTimeline)timelines[i], offsets[i], frame, time);
+				continue;
+			}
+
+			if (time < startTimes[i]) continue;
+			if (live[frame * n + i]) {
+				timelines[i].apply(skeleton, lastTime, time, events, alpha);
+				continue;
+			}
+
+			int a = row + offsets[i], b = next + offsets[i];
+			switch (kind) {
+			case ROTATE: {
+				Bone bone = skeleton.bones.get(targets[i]);
+				float amount = wrap(values[b] - values[a]);
+				amount = wrap(values[a] + amount * percent - bone.rotation);
+				bone.rotation += amount * alpha;
+				break;
+			}
+			case TRANSLATE: {
+				Bone bone = skeleton.bones.get(targets[i]);
+				bone.x += (values[a] + (values[b] - values[a]) * percent - bone.x) * alpha;
+				bone.y += (values[a + 1] + (values[b + 1] - values[a + 1]) * percent - bone.y) * alpha;
+				break;
+			}
+			case SCALE: {
+				Bone bone = skeleton.bones.get(targets[i]);
+				bone.scaleX += (values[a] + (values[b] - values[a]) * percent - bone.scaleX) * alpha;
+				bone.scaleY += (values[a + 1] + (values[b + 1] - values[a + 1]) * percent - bone.scaleY) * alpha;
+				break;
+			}
+			case COLOR: {
+				Color color = skeleton.slots.get(targets[i]).color;
+				float r = values[a] + (values[b] - values[a]) * percent;
+				float g = values[a + 1] + (values[b + 1] - values[a + 1]) * percent;
+				float bl = values[a + 2] + (values[b + 2] - values[a + 2]) * percent;
+				float al = values[a + 3] + (values[b + 3] - values[a + 3]) * percent;
+				if (alpha < 1)
+					color.add((r - color.r) * alpha, (g - color.g) * alpha, (bl - color.b) * alpha, (al - color.a) * alpha);
+				else
+					color.set(r, g, bl, al);
+				break;
+			}
+			case FFD:
+				applyFfd(skeleton, (FfdTimeline)timelines[i], a, b, percent, alpha);
+				break;
+			}
+		}
+	}
+
+	private void applyFfd (Skeleton skeleton, FfdTimeline timeline, int a, int b, float percent, float alpha) {
+		Slot slot = skeleton.slots.get(timeline.slotIndex);
+		if (slot.getAttachment() != timeline.attachment) return;
+
+		int vertexCount = timeline.getVertices()[0].length;
+		FloatArray verticesArray = slot.getAttachmentVertices();
+		if (verticesArray.size != vertexCount) alpha = 1; // Don't mix from uninitialized slot vertices.
+		verticesArray.size = 0;
+		verticesArray.ensureCapacity(vertexCount);
+		verticesArray.size = vertexCount;
+		float[] vertices = verticesArray.items;
+		float[] values = this.values;
+
+		if (alpha < 1) {
+			for (int i = 0; i < vertexCount; i++) {
+				float prev = values[a + i];
+				vertices[i] += (prev + (values[b + i] - prev) * percent - vertices[i]) * alpha;
+			}
+		} else {
+			for (int i = 0; i < vertexCount; i++) {
+				float prev = values[a + i];
+				vertices[i] = prev + (values[b + i] - prev) * percent;
+			}
+		}
+	}
+
+	/** Same as {@link AttachmentTimeline#apply(Skeleton, float, float, Array, float)}. */
+	private void applyAttachment (Skeleton skeleton, AttachmentTimeline timeline, int offset, int frame, float lastTime,
+		float time) {
+		float[] frames = timeline.frames;
+		int frameIndex;
+		if (time < frames[0]) {
+			if (lastTime <= time) return;
+			// Looped back, the last key was crossed.
+			frameIndex = frames.length - 1;
+		} else {
+			if (lastTime > time) lastTime = -1;
+			frameIndex = findKey(frames, offset, frame, time);
+		}
+		if (frames[frameIndex] < lastTime) return;
+		String attachmentName = timeline.attachmentNames[frameIndex];
+		int slotIndex = timeline.slotIndex;
+		skeleton.slots.get(slotIndex).setAttachment(
+			attachmentName == null ? null : skeleton.getAttachment(slotIndex, attachmentName));
+	}
+
+	/** Same as {@link DrawOrderTimeline#apply(Skeleton, float, float, Array, float)}. */
+	private void applyDrawOrder (Skeleton skeleton, DrawOrderTimeline timeline, int offset, int frame, float time) {
+		float[] frames = timeline.getFrames();
+		if (time < frames[0]) return; // Time is before first frame.
+
+		Array<Slot> drawOrder = skeleton.drawOrder;
+		Array<Slot> slots = skeleton.slots;
+		int[] drawOrderToSetupIndex = timeline.getDrawOrders()[findKey(frames, offset, frame, time)];
+		if (drawOrderToSetupIndex == null)
+			System.arraycopy(slots.items, 0, drawOrder.items, 0, slots.size);
+		else {
+			for (int i = 0, n = drawOrderToSetupIndex.length; i < n; i++)
+				drawOrder.set(i, slots.get(drawOrderToSetupIndex[i]));
+		}
+	}
+
+	/** Last key at or before time, which is at or after the first key. */
+	private int findKey (float[] frames, int offset, int frame, float time) {
+		int key = Math.max(keys[frame * keyStride + offset], 0);
+		int last = frames.length - 1;
+		while (key < last && frames[key + 1] <= time)
+			key++;
+		while (key > 0 && frames[key] > time)
+			key--;
+		return key;
+	}
+
+	private void sample (Skeleton skeleton, int index, int frame, float time) {
+		Timeline timeline = timelines[index];
+		int kind = kinds[index];
+		int value = frame * valueStride + offsets[index];
+		float[] values = this.values;
+		switch (kind) {
+		case ROTATE: {
+			Bone bone = skeleton.bones.get(((RotateTimeline)timeline).boneIndex);
+			bone.rotation = bone.data.rotation;
+			timeline.apply(skeleton, time, Math.max(time, startTimes[index]), null, 1);
+			values[value] = bone.rotation;
+			break;
+		}
+		case TRANSLATE: {
+			Bone bone = skeleton.bones.get(((TranslateTimeline)timeline).boneIndex);
+			timeline.apply(skeleton, time, Math.max(time, startTimes[index]), null, 1);
+			values[value] = bone.x;
+			values[value + 1] = bone.y;
+			break;
+		}
+		case SCALE: {
+			Bone bone = skeleton.bones.get(((ScaleTimeline)timeline).boneIndex);
+			timeline.apply(skeleton, time, Math.max(time, startTimes[index]), null, 1);
+			values[value] = bone.scaleX;
+			values[value + 1] = bone.scaleY;
+			break;
+		}
+		case COLOR: {
+			Color color = skeleton.slots.get(((ColorTimeline)timeline).slotIndex).color;
+			timeline.apply(skeleton, time, Math.max(time, startTimes[index]), null, 1);
+			values[value] = color.r;
+			values[value + 1] = color.g;
+			values[value + 2] = color.b;
+			values[value + 3] = color.a;
+			break;
+		}
+		case FFD: {
+			FfdTimeline ffd = (FfdTimeline)timeline;
+			Slot slot = skeleton.slots.get(ffd.slotIndex);
+			slot.setAttachment(ffd.attachment);
+			slot.getAttachmentVertices().clear();
+			timeline.apply(skeleton, time, Math.max(time, startTimes[index]), null, 1);
+			FloatArray vertices = slot.getAttachmentVertices();
+			System.arraycopy(vertices.items, 0, values, value, vertices.size);
+			break;
+		}
+		case ATTACHMENT:
+		case DRAW_ORDER: {
+			float[] frames = kind == ATTACHMENT ? ((AttachmentTimeline)timeline).frames : ((DrawOrderTimeline)timeline).getFrames();
+			int key = -1;
+			while (key + 1 < frames.length && frames[key + 1] <= time)
+				key++;
+			keys[frame * keyStride + offsets[index]] = key;
+			break;
+		}
+		}
+	}
+
+	/** Flags the segments a stepped key of the timeline jumps in, before the next key's time or at it. */
+	private void markSteps (int index) {
+		CurveTimeline timeline = (CurveTimeline)timelines[index];
+		float[] frames;
+		int step;
+		switch (kinds[index]) {
+		case ROTATE:
+			frames = ((RotateTimeline)timeline).getFrames();
+			step = 2;
+			break;
+		case TRANSLATE:
+		case SCALE:
+			frames = ((TranslateTimeline)timeline).getFrames();
+			step = 3;
+			break;
+		case COLOR:
+			frames = ((ColorTimeline)timeline).getFrames();
+			step = 5;
+			break;
+		default:
+			frames = ((FfdTimeline)timeline).getFrames();
+			step = 1;
+		}
+
+		int count = timelines.length;
+		for (int key = 0, n = timeline.getFrameCount() - 1; key < n; key++) {
+			if (timeline.getCurveType(key) != CurveTimeline.STEPPED) continue;
+			if (frameTime == 0) {
+				live[index] = true;
+				continue;
+			}
+			// Both segments around a frame the jump falls on, in case division rounds it to the wrong side.
+			float jump = frames[(key + 1) * step] / frameTime;
+			int first = Math.max((int)Math.ceil(jump) - 1, 0), last = Math.min((int)jump, frameCount - 2);
+			for (int segment = first; segment <= last; segment++)
+				live[segment * count + index] = true;
+		}
+	}
+
+	static private int kindOf (Timeline timeline, boolean deform) {
+		// ScaleTimeline extends TranslateTimeline.
+		if (timeline instanceof ScaleTimeline) return SCALE;
+		if (timeline instanceof TranslateTimeline) return TRANSLATE;
+		if (timeline instanceof RotateTimeline) return ROTATE;
+		if (timeline instanceof ColorTimeline) return COLOR;
+		if (timeline instanceof FfdTimeline) return deform ? FFD : LIVE;
+		if (timeline instanceof AttachmentTimeline) return ATTACHMENT;
+		if (timeline instanceof DrawOrderTimeline) return DRAW_ORDER;
+		return LIVE;
+	}
+
+	static private float wrap (float angle) {
+		while (angle > 180)
+			angle -= 360;
+		while (angle < -180)
+			angle += 360;
+		return angle;
+	}
+}
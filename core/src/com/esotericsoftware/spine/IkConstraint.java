@@ -37,13 +37,13 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 
 public class IkConstraint {
-	static private final Vector2 temp = new Vector2();
-
 	final IkConstraintData data;
 	final Array<Bone> bones;
 	Bone target;
 	float mix = 1;
 	int bendDirection;
+	// Per constraint so skeletons can be updated on different threads.
+	private final Vector2 temp = new Vector2();
 
 	public IkConstraint (IkConstraintData data, Skeleton skeleton) {
 		this.data = data;
@@ -75,7 +75,7 @@ public class IkConstraint {
 			apply(bones.first(), target.worldX, target.worldY, mix);
 			break;
 		case 2:
-			apply(bones.first(), bones.get(1), target.worldX, target.worldY, bendDirection, mix);
+			apply(bones.first(), bones.get(1), target.worldX, target.worldY, bendDirection, mix, temp);
 			break;
 		}
 	}
@@ -129,13 +129,17 @@ public class IkConstraint {
 	 * target is specified in the world coordinate system.
 	 * @param child Any descendant bone of the parent. */
 	static public void apply (Bone parent, Bone child, float targetX, float targetY, int bendDirection, float alpha) {
+		apply(parent, child, targetX, targetY, bendDirection, alpha, new Vector2());
+	}
+
+	static private void apply (Bone parent, Bone child, float targetX, float targetY, int bendDirection, float alpha,
+		Vector2 position) {
 		float childRotation = child.rotation, parentRotation = parent.rotation;
 		if (alpha == 0) {
 			child.rotationIK = childRotation;
 			parent.rotationIK = parentRotation;
 			return;
 		}
-		Vector2 position = temp;
 		Bone parentParent = parent.parent;
 		if (parentParent != null) {
 			parentParent.worldToLocal(position.set(targetX, targetY));
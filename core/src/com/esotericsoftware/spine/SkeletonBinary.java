@@ -555,7 +555,9 @@ public class SkeletonBinary {
 		}
 
 		timelines.shrink();
-		skeletonData.animations.add(new Animation(name, timelines, duration));
+		Animation animation = new Animation(name, timelines, duration);
+		animation.index = skeletonData.animations.size;
+		skeletonData.animations.add(animation);
 	}
 
 	private void readCurve (DataInput input, int frameIndex, CurveTimeline timeline) throws IOException {
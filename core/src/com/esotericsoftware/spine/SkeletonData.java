@@ -153,6 +153,27 @@ public class SkeletonData {
 		return null;
 	}
 
+	/** Samples every animation so posing interpolates stored frames instead of evaluating curves, see {@link BakedAnimation}.
+	 * Memory grows with the frame rate and the animations' duration.
+	 * @param framesPerSecond 0 evaluates the timelines again.
+	 * @param deform Whether to sample mesh deforms, which take the most memory.
+	 * @return Floats and key indices stored. */
+	public int bake (float framesPerSecond, boolean deform) {
+		Skeleton skeleton = framesPerSecond > 0 ? new Skeleton(this) : null;
+		int size = 0;
+		for (int i = 0, n = animations.size; i < n; i++) {
+			Animation animation = animations.get(i);
+			if (skeleton == null) {
+				animation.setBaked(null);
+				continue;
+			}
+			BakedAnimation baked = new BakedAnimation(animation, skeleton, framesPerSecond, deform);
+			animation.setBaked(baked);
+			size += baked.getSize();
+		}
+		return size;
+	}
+
 	// --- IK
 
 	public Array<IkConstraintData> getIkConstraints () {
@@ -52,6 +52,10 @@ public class SkeletonDataLoader
 			skeletonJson.setScale(parameter.scale);
 			skeletonData = skeletonJson.readSkeletonData(file);			
 		}
+		
+		if (parameter.bakeRate > 0.0f) {
+			skeletonData.bake(parameter.bakeRate, parameter.bakeDeform);
+		}
 	}
 
 	@Override
@@ -75,11 +79,16 @@ public class SkeletonDataLoader
     	// A SkeletonJson must be loaded from an atlas.
     	public String atlasName;
     	public float  scale;
-    	
+    	// See SkeletonData.bake(), 0 leaves animations unbaked
+    	public float  bakeRate;
+    	// Bakes mesh deforms as well
+    	public boolean bakeDeform;
     	
     	public SkeletonDataLoaderParameter() {
     		atlasName = "";
     		scale = Env.UI_TO_WORLD;
+    		bakeRate = Env.SPINE_BAKE_RATE;
+    		bakeDeform = Env.SPINE_BAKE_DEFORM;
     	}
     }
 }
\ No newline at end of file
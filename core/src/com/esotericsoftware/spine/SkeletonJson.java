@@ -535,7 +535,9 @@ public class SkeletonJson {
 		}
 
 		timelines.shrink();
-		skeletonData.animations.add(new Animation(name, timelines, duration));
+		Animation animation = new Animation(name, timelines, duration);
+		animation.index = skeletonData.animations.size;
+		skeletonData.animations.add(animation);
 	}
 
 	void readCurve (CurveTimeline timeline, int frameIndex, JsonValue valueMap) {
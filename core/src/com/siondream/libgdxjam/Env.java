@@ -27,6 +27,15 @@ public class Env
 
 	public final static float STEP = 1.0f / 60.0f;
 	public final static float MAX_STEP = 0.25f;
+	public final static int MAX_STEPS_PER_FRAME = 5;
+	public final static boolean PARALLEL_SIMULATION = true;
+	// Threads next to the simulation one for systems that split their entities, 0 keeps them serial
+	public final static int WORKER_THREADS = 3;
+	// Frames per second Spine animations are baked at when loaded, 0 evaluates their curves every step.
+	// Off by default, a skeleton opts in through SkeletonDataLoaderParameter.bakeRate
+	public final static float SPINE_BAKE_RATE = 0.0f;
+	// Whether mesh deforms are baked too, they take most of the memory
+	public final static boolean SPINE_BAKE_DEFORM = true;
 	
 	public final static float MIN_WORLD_WIDTH = 9.6f;
 	public final static float MIN_WORLD_HEIGHT = 7.2f;
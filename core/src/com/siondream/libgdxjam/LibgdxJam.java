@@ -26,6 +26,7 @@ import com.siondream.libgdxjam.physics.PhysicsData;
 import com.siondream.libgdxjam.physics.PhysicsDataLoader;
 import com.siondream.libgdxjam.screens.Screens;
 import com.siondream.libgdxjam.tweens.CameraAccessor;
+import com.siondream.libgdxjam.utils.MainThreadQueue;
 import com.siondream.libgdxjam.animation.Tags;
 import com.siondream.libgdxjam.animation.AnimationControl;
 import com.siondream.libgdxjam.animation.AnimationControlLoader;
@@ -44,6 +45,7 @@ public class LibgdxJam extends Game {
 	private InputMultiplexer inputMultiplexer = new InputMultiplexer();
 	private Categories categories;
 	private Tags tags;
+	private MainThreadQueue mainThreadQueue = new MainThreadQueue();
 	
 	@Override
 	public void create () {
@@ -58,33 +60,7 @@ public class LibgdxJam extends Game {
 		categories = new Categories();
 		tags = new Tags();
 				
-		assetManager = new AssetManager();
-		assetManager.setLoader(
-				SkeletonData.class,
-				new SkeletonDataLoader(
-					new InternalFileHandleResolver()
-				)
-			);
-		assetManager.setLoader(
-			OverlapScene.class,
-			new OverlapSceneLoader(
-				new InternalFileHandleResolver()
-			)
-		);
-		assetManager.setLoader(
-			PhysicsData.class,
-			new PhysicsDataLoader(
-				new InternalFileHandleResolver(),
-				categories
-			)
-		);
-		assetManager.setLoader(
-			AnimationControl.class,
-			new AnimationControlLoader(
-				new InternalFileHandleResolver(),
-				tags
-			)
-		);
+		assetManager = createAssetManager(categories, tags);
 		
 		tweenManager = new TweenManager();
 		Tween.registerAccessor(Camera.class, new CameraAccessor());
@@ -133,6 +109,37 @@ public class LibgdxJam extends Game {
 		getScreen().render(deltaTime);
 	}
 	
+	protected AssetManager createAssetManager(Categories categories, Tags tags) {
+		AssetManager manager = new AssetManager();
+		manager.setLoader(
+			SkeletonData.class,
+			new SkeletonDataLoader(
+				new InternalFileHandleResolver()
+			)
+		);
+		manager.setLoader(
+			OverlapScene.class,
+			new OverlapSceneLoader(
+				new InternalFileHandleResolver()
+			)
+		);
+		manager.setLoader(
+			PhysicsData.class,
+			new PhysicsDataLoader(
+				new InternalFileHandleResolver(),
+				categories
+			)
+		);
+		manager.setLoader(
+			AnimationControl.class,
+			new AnimationControlLoader(
+				new InternalFileHandleResolver(),
+				tags
+			)
+		);
+		return manager;
+	}
+	
 	public AssetManager getAssetManager() {
 		return assetManager;
 	}
@@ -153,6 +160,10 @@ public class LibgdxJam extends Game {
 		return tags;
 	}
 	
+	public MainThreadQueue getMainThreadQueue() {
+		return mainThreadQueue;
+	}
+	
 	@Override
 	public void setScreen (Screen screen) {
 		logger.info("setting screen: " + screen);
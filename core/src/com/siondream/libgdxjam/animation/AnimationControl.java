@@ -4,6 +4,7 @@ import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationStateData;
 
 public class AnimationControl {
 	public final ImmutableArray<TagGroup> groups;
@@ -14,6 +15,7 @@ public class AnimationControl {
 	final Array<Layer> mutableLayers = new Array<Layer>();
 	final ObjectMap<Animation, ObjectMap<Animation, Float>> transitions = new ObjectMap<Animation, ObjectMap<Animation, Float>>();
 	float defaultDuration = 0.0f;
+	AnimationStateData stateData;
 	
 	public AnimationControl() {
 		groups = new ImmutableArray<TagGroup>(mutableGroups);
@@ -47,4 +49,12 @@ public class AnimationControl {
 	public float defaultTransition() {
 		return defaultDuration;
 	}
+	
+	/**
+	 * Transitions as mixes for the skeleton the control was loaded for,
+	 * computed once and shared by every AnimationState that uses it.
+	 */
+	public AnimationStateData getStateData() {
+		return stateData;
+	}
 }
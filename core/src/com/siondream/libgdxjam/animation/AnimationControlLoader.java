@@ -14,6 +14,7 @@ import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.siondream.libgdxjam.Env;
 import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonDataLoader.SkeletonDataLoaderParameter;
 
@@ -90,6 +91,23 @@ public class AnimationControlLoader extends AsynchronousAssetLoader<AnimationCon
 		loadTagGroups(root.get("tags"));
 		loadLayers(root.get("layers"));
 		loadTransitions(root.get("transitions"));
+		loadStateData();
+	}
+	
+	private void loadStateData() {
+		AnimationStateData stateData = new AnimationStateData(skeleton);
+		stateData.setDefaultMix(data.defaultDuration);
+		
+		for (ObjectMap.Entry<Animation, ObjectMap<Animation, Float>> from : data.transitions) {
+			for (ObjectMap.Entry<Animation, Float> to : from.value) {
+				// Replaying an animation always mixes with the default duration
+				if (from.key != to.key) {
+					stateData.setMix(from.key, to.key, to.value);
+				}
+			}
+		}
+		
+		data.stateData = stateData;
 	}
 	
 	private void loadTagGroups(JsonValue value) {
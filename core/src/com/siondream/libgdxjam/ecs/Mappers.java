@@ -2,15 +2,20 @@ package com.siondream.libgdxjam.ecs;
 
 import com.badlogic.ashley.core.ComponentMapper;
 import com.siondream.libgdxjam.ecs.components.AnimationControlComponent;
+import com.siondream.libgdxjam.ecs.components.BulletComponent;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.LayerComponent;
 import com.siondream.libgdxjam.ecs.components.LightComponent;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderGridComponent;
 import com.siondream.libgdxjam.ecs.components.ObservableComponent;
 import com.siondream.libgdxjam.ecs.components.ObserverComponent;
 import com.siondream.libgdxjam.ecs.components.ParticleComponent;
 import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
 import com.siondream.libgdxjam.ecs.components.SizeComponent;
 import com.siondream.libgdxjam.ecs.components.SpineComponent;
+import com.siondream.libgdxjam.ecs.components.StaticGeometryComponent;
 import com.siondream.libgdxjam.ecs.components.TextureComponent;
 import com.siondream.libgdxjam.ecs.components.TransformComponent;
 import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
@@ -38,6 +43,11 @@ public class Mappers {
 	public static ComponentMapper<LightComponent> light = ComponentMapper.getFor(LightComponent.class);
 	public static ComponentMapper<SpineComponent> spine = ComponentMapper.getFor(SpineComponent.class);
 	public static ComponentMapper<AnimationControlComponent> animControl = ComponentMapper.getFor(AnimationControlComponent.class);
+	public static ComponentMapper<StaticGeometryComponent> staticGeometry = ComponentMapper.getFor(StaticGeometryComponent.class);
+	public static ComponentMapper<BulletComponent> bullet = ComponentMapper.getFor(BulletComponent.class);
+	public static ComponentMapper<DormantComponent> dormant = ComponentMapper.getFor(DormantComponent.class);
+	public static ComponentMapper<OccluderGridComponent> occluderGrid = ComponentMapper.getFor(OccluderGridComponent.class);
+	public static ComponentMapper<OccluderComponent> occluder = ComponentMapper.getFor(OccluderComponent.class);
 	
 	// Agents
 	public static ComponentMapper<CCTvComponent> cctv = ComponentMapper.getFor(CCTvComponent.class);
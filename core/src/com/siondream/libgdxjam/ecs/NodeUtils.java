@@ -1,15 +1,13 @@
 package com.siondream.libgdxjam.ecs;
 
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
 import com.siondream.libgdxjam.ecs.components.TransformComponent;
 
 public class NodeUtils {
-	private static Vector3 v3 = new Vector3();
-	private static Vector2 v2 = new Vector2();
-	
 	public static void getPosition(Entity entity, Vector2 position) {
 		if (Mappers.node.has(entity)) {
 			computeWorld(entity);
@@ -21,21 +19,65 @@ public class NodeUtils {
 		}
 	}
 	
+	/**
+	 * Brings the world transform of the entity and its ancestors up to date.
+	 * Only the nodes whose local transform, or whose parent, changed since
+	 * they were last computed do any work. TransformSystem does the same for
+	 * every node once per frame.
+	 */
 	public static void computeWorld(Entity entity) {
 		NodeComponent node = Mappers.node.get(entity);
 		
 		if (node.parent == null) { return; }
 		
 		computeWorld(node.parent);
-		computeTransform(entity, node.parent);
+		updateWorld(
+			node,
+			Mappers.transform.get(entity),
+			Mappers.node.get(node.parent)
+		);
 	}
 	
+	/**
+	 * Recomputes the world transform regardless of whether it is dirty.
+	 */
 	public static void computeTransform(Entity entity, Entity parent) {
 		NodeComponent node = Mappers.node.get(entity);
 		TransformComponent t = Mappers.transform.get(entity);
 		NodeComponent parentNode = Mappers.node.get(node.parent);
+		
+		computeTransform(node, t, parentNode);
+	}
 	
-		node.world.setToTrnRotScl(
+	/**
+	 * Recomputes the world transform of node if its local transform or its
+	 * parent's world changed. Assumes parentNode is up to date.
+	 */
+	public static boolean updateWorld(NodeComponent node,
+									  TransformComponent t,
+									  NodeComponent parentNode) {
+		if (node.worldParent == parentNode &&
+			node.parentVersion == parentNode.version &&
+			node.localX == t.position.x &&
+			node.localY == t.position.y &&
+			node.localAngle == t.angle &&
+			node.localScaleX == t.scale.x &&
+			node.localScaleY == t.scale.y &&
+			node.localOriginX == t.origin.x &&
+			node.localOriginY == t.origin.y) {
+			return false;
+		}
+		
+		computeTransform(node, t, parentNode);
+		return true;
+	}
+	
+	private static void computeTransform(NodeComponent node,
+										 TransformComponent t,
+										 NodeComponent parentNode) {
+		Affine2 world = node.world;
+		
+		world.setToTrnRotScl(
 			t.position.x + t.origin.x,
 			t.position.y + t.origin.y,
 			t.angle,
@@ -43,25 +85,31 @@ public class NodeUtils {
 			t.scale.y
 		);
 		
-		node.world.translate(-t.origin.x, -t.origin.y);
+		world.translate(-t.origin.x, -t.origin.y);
 		
-		node.world.preMul(parentNode.world);
-		node.computed.set(node.world);
+		world.preMul(parentNode.world);
+		node.computed.set(world);
+		
+		node.position.set(world.m02, world.m12);
+		node.scale.set(
+			(float)Math.sqrt(world.m00 * world.m00 + world.m01 * world.m01),
+			(float)Math.sqrt(world.m10 * world.m10 + world.m11 * world.m11)
+		);
 		
-		node.computed.getTranslation(v3);
-		node.position.set(v3.x, v3.y);
-		node.scale.set(node.computed.getScaleX(), node.computed.getScaleY());
+		// Direction of the transformed x axis, in [0, 360) like Vector2.angle()
+		float angle = (float)Math.atan2(world.m10, world.m00) * MathUtils.radiansToDegrees;
+		node.angle = angle < 0.0f ? angle + 360.0f : angle;
 		
-		// Quaternion.getAngle() is screwed for angles between 240-360 degrees
-		// How can we get the angle then? Oh noes!
-		// 1. Unit vector pointing to the right (x=1)
-		// 2. Rotate it using the computed transform Matrix4
-		// 3. Set it to a Vector2 and normalize it
-		// 4. Get the angle for that Vector2, that's the angle we want
-		v3.set(1.0f, 0.0f, 0.0f).rot(node.computed);
-		v2.set(v3.x, v3.y);
-		v2.nor();
-		node.angle = v2.angle();
+		node.localX = t.position.x;
+		node.localY = t.position.y;
+		node.localAngle = t.angle;
+		node.localScaleX = t.scale.x;
+		node.localScaleY = t.scale.y;
+		node.localOriginX = t.origin.x;
+		node.localOriginY = t.origin.y;
+		node.worldParent = parentNode;
+		node.parentVersion = parentNode.version;
+		++node.version;
 	}
 	
 	public static Entity getParent(Entity entity) {
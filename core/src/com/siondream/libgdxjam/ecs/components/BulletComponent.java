@@ -0,0 +1,13 @@
+package com.siondream.libgdxjam.ecs.components;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Pooled by AttackSystem. The texture is only attached while the bullet is
+ * in flight, so parked bullets are not rendered.
+ */
+public class BulletComponent implements Component {
+	public TextureComponent texture;
+	public float time = 0.0f;
+	public boolean active = false;
+}
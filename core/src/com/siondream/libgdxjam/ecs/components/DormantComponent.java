@@ -0,0 +1,12 @@
+package com.siondream.libgdxjam.ecs.components;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Marks entities ActivitySystem put to rest, far from the camera. Their body
+ * is inactive, the AI, attack and animation control systems exclude them
+ * and their skeleton is paused.
+ */
+public class DormantComponent implements Component {
+
+}
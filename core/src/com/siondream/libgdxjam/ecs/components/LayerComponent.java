@@ -2,9 +2,9 @@ package com.siondream.libgdxjam.ecs.components;
 
 import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
 
 public class LayerComponent implements Component {
 	public Array<String> names = new Array<String>();
-	public ObjectMap<String, Integer> map = new ObjectMap<String, Integer>();
+	public ObjectIntMap<String> map = new ObjectIntMap<String>();
 }
@@ -15,4 +15,18 @@ public class NodeComponent implements Component {
 	public Vector2 position = new Vector2();
 	public Vector2 scale = new Vector2();
 	public float angle = 0.0f;
+	
+	// Bookkeeping for NodeUtils.updateWorld(), world is only recomputed when
+	// the local transform, the parent or the parent's world changed since the
+	// last time
+	public int version = 0;
+	public NodeComponent worldParent;
+	public int parentVersion = -1;
+	public float localX, localY;
+	public float localOriginX, localOriginY;
+	public float localScaleX, localScaleY;
+	public float localAngle;
+	
+	// Position in a depth first walk of the tree, kept by TransformSystem
+	public int order = 0;
 }
@@ -0,0 +1,8 @@
+package com.siondream.libgdxjam.ecs.components;
+
+import com.badlogic.ashley.core.Component;
+
+public class OccluderComponent implements Component {
+	// Segments x1, y1, x2, y2 relative to the transform, see OccluderGrid.getOutline()
+	public float[] outline;
+}
@@ -0,0 +1,8 @@
+package com.siondream.libgdxjam.ecs.components;
+
+import com.badlogic.ashley.core.Component;
+import com.siondream.libgdxjam.physics.OccluderGrid;
+
+public class OccluderGridComponent implements Component {
+	public OccluderGrid grid = new OccluderGrid();
+}
@@ -5,4 +5,7 @@ import com.badlogic.gdx.physics.box2d.Body;
 
 public class PhysicsComponent implements Component {
 	public Body body;
+	
+	// Slot in PhysicsSystem's body arrays, -1 while not registered
+	public int index = -1;
 }
@@ -6,7 +6,17 @@ import com.esotericsoftware.spine.Skeleton;
 
 public class SpineComponent implements Component
 {
+	// Animation level of detail, picked by SpineSystem every step
+	public static final int LOD_FULL = 0;
+	public static final int LOD_EVENTS = 1;
+	public static final int LOD_DISTANT = 2;
+	
 	public Skeleton skeleton;
 	public AnimationState state;
 	
+	public int lod = LOD_FULL;
+	// False while the pose lags behind the state, see SpineSystem.pose()
+	public boolean posed = true;
+	// Time a LOD_DISTANT state has not been advanced by yet
+	public float pendingTime;
 }
@@ -0,0 +1,8 @@
+package com.siondream.libgdxjam.ecs.components;
+
+import com.badlogic.ashley.core.Component;
+import com.siondream.libgdxjam.rendering.StaticGeometry;
+
+public class StaticGeometryComponent implements Component {
+	public StaticGeometry geometry = new StaticGeometry();
+}
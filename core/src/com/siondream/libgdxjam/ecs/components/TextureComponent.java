@@ -5,4 +5,11 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class TextureComponent implements Component {
 	public TextureRegion region = new TextureRegion();
+	
+	// World space quad and what it was built from, see RenderQueue
+	public float[] vertices = new float[20];
+	public TextureRegion verticesRegion;
+	public int verticesVersion = -1;
+	public float verticesWidth;
+	public float verticesHeight;
 }
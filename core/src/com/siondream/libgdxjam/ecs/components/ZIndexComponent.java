@@ -5,4 +5,6 @@ import com.badlogic.ashley.core.Component;
 public class ZIndexComponent implements Component {
 	public String layer = "";
 	public int index;
+	// Position of layer in the parent's LayerComponent, kept by LayerSystem
+	public int layerIndex;
 }
@@ -1,11 +1,20 @@
 package com.siondream.libgdxjam.ecs.components.agents;
 
 import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
 
 public class PlayerComponent implements Component {
 	public Fixture feetSensor;
 	public Fixture fixture;
+	public Filter filter;
+	// Fixtures of the stance not in use, built on the same body. The main
+	// fixture collides with nothing, the feet sensor keeps counting contacts
+	// so grounded is right as soon as the stance switches
+	public Fixture otherFeetSensor;
+	public Fixture otherFixture;
+	public Filter otherFilter;
+	public int otherFeetContacts = 0;
 	public float groundFriction = 50.0f;
 	public float maxVelocityX = 5.0f;
 	public float maxVelocityJumpX = 5.0f;
@@ -15,5 +15,9 @@ public class SensorComponent implements Component
 	public boolean isCollidingPlayer;
 	public boolean isCollidingBox;
 	
+	// Fixtures currently touching the sensor, kept by SensorSystem
+	public int playerContacts;
+	public int boxContacts;
+	
 	public Fixture sensorFixture;
 }
@@ -0,0 +1,182 @@
+package com.siondream.libgdxjam.ecs.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Logger;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.BulletComponent;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
+import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+import com.siondream.libgdxjam.ecs.components.agents.PlayerComponent;
+import com.siondream.libgdxjam.ecs.components.environment.DoorComponent;
+
+/**
+ * Simulation level of detail. Dynamic and kinematic bodies further than
+ * margin outside the camera focus rectangle are deactivated, so Box2D
+ * neither steps nor collides them, and tagged with DormantComponent so the
+ * AI, attack and animation systems skip them. They wake up once back within
+ * margin.
+ *
+ * Sleeping only happens hysteresis further out than waking, so entities on
+ * the edge do not flip every step. Entities are visited in the order they
+ * entered the engine, during the fixed step, so the same inputs always wake
+ * the same entities on the same step.
+ *
+ * The player, pooled bullets and doors, which buttons anywhere can open, are
+ * never put to rest. Neither are boxes: deactivating a body ends its
+ * contacts, so a box resting on a button would read as leaving it and close
+ * the button's door. Static bodies cost nothing to step and are left alone.
+ */
+public class ActivitySystem extends EntitySystem implements EntityListener {
+	public static final float DEFAULT_MARGIN = 8.0f;
+	private static final float HYSTERESIS = 2.0f;
+	
+	private static final Family family = Family.all(
+		PhysicsComponent.class,
+		TransformComponent.class
+	).exclude(
+		PlayerComponent.class,
+		BulletComponent.class,
+		DoorComponent.class
+	).get();
+	
+	private Logger logger = new Logger(
+		ActivitySystem.class.getSimpleName(),
+		Env.LOG_LEVEL
+	);
+	
+	private final Rectangle focusRectangle;
+	private final PhysicsSystem physicsSystem;
+	private final short boxBits;
+	private Array<Entity> managed = new Array<Entity>();
+	private float margin = DEFAULT_MARGIN;
+	private int dormantCount;
+	
+	public ActivitySystem(Rectangle focusRectangle, PhysicsSystem physicsSystem) {
+		logger.info("initialize");
+		this.focusRectangle = focusRectangle;
+		this.physicsSystem = physicsSystem;
+		this.boxBits = physicsSystem.getCategories().getBits("box");
+	}
+	
+	public float getMargin() {
+		return margin;
+	}
+	
+	public void setMargin(float margin) {
+		this.margin = margin;
+	}
+	
+	/**
+	 * Entities currently at rest.
+	 */
+	public int getDormantCount() {
+		return dormantCount;
+	}
+	
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		
+		for (Entity entity : engine.getEntitiesFor(family)) {
+			entityAdded(entity);
+		}
+		
+		engine.addEntityListener(family, this);
+	}
+	
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+		
+		for (int i = 0; i < managed.size; ++i) {
+			wake(managed.get(i));
+		}
+		
+		managed.clear();
+	}
+	
+	@Override
+	public void entityAdded(Entity entity) {
+		Body body = Mappers.physics.get(entity).body;
+		
+		if (body.getType() != BodyType.StaticBody && !isBox(body)) {
+			managed.add(entity);
+		}
+	}
+	
+	@Override
+	public void entityRemoved(Entity entity) {
+		if (managed.removeValue(entity, true) && Mappers.dormant.has(entity)) {
+			entity.remove(DormantComponent.class);
+			--dormantCount;
+		}
+	}
+	
+	@Override
+	public void update(float deltaTime) {
+		float wakeMargin = margin;
+		float sleepMargin = margin + HYSTERESIS;
+		
+		for (int i = 0; i < managed.size; ++i) {
+			Entity entity = managed.get(i);
+			Vector2 position = Mappers.transform.get(entity).position;
+			boolean asleep = Mappers.dormant.has(entity);
+			
+			if (asleep && isWithin(position, wakeMargin)) {
+				wake(entity);
+			}
+			else if (!asleep && !isWithin(position, sleepMargin)) {
+				sleep(entity);
+			}
+		}
+	}
+	
+	private boolean isWithin(Vector2 position, float distance) {
+		return position.x >= focusRectangle.x - distance &&
+			   position.x <= focusRectangle.x + focusRectangle.width + distance &&
+			   position.y >= focusRectangle.y - distance &&
+			   position.y <= focusRectangle.y + focusRectangle.height + distance;
+	}
+	
+	private boolean isBox(Body body) {
+		Array<Fixture> fixtures = body.getFixtureList();
+		
+		for (int i = 0; i < fixtures.size; ++i) {
+			if ((fixtures.get(i).getFilterData().categoryBits & boxBits) != 0) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private void sleep(Entity entity) {
+		Mappers.physics.get(entity).body.setActive(false);
+		entity.add(new DormantComponent());
+		++dormantCount;
+	}
+	
+	private void wake(Entity entity) {
+		if (!Mappers.dormant.has(entity)) { return; }
+		
+		Mappers.physics.get(entity).body.setActive(true);
+		entity.remove(DormantComponent.class);
+		
+		// Moves while asleep are not blended in
+		physicsSystem.teleport(entity);
+		--dormantCount;
+	}
+}
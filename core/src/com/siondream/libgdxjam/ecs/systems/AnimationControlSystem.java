@@ -1,25 +1,27 @@
 package com.siondream.libgdxjam.ecs.systems;
 
-import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.ashley.utils.ImmutableArray;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Bits;
 import com.badlogic.gdx.utils.Logger;
 import com.esotericsoftware.spine.Animation;
 import com.esotericsoftware.spine.AnimationState.TrackEntry;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.animation.Entry;
 import com.siondream.libgdxjam.animation.Layer;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.components.SpineComponent;
 import com.siondream.libgdxjam.ecs.components.AnimationControlComponent;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 
-public class AnimationControlSystem extends IteratingSystem implements EntityListener {
+/**
+ * Plays the best matching animation of each layer. Transitions are not set
+ * up per entity: AnimationControl.getStateData() holds them as mixes, shared
+ * by every AnimationState created from it.
+ */
+public class AnimationControlSystem extends IteratingSystem {
 
 	private Bits tmp = new Bits();
 	Logger logger = new Logger(
@@ -30,34 +32,12 @@ public class AnimationControlSystem extends IteratingSystem implements EntityLis
 	public AnimationControlSystem() {
 		super(Family.all(
 			SpineComponent.class,
-			AnimationControlComponent.class).get()
+			AnimationControlComponent.class).exclude(DormantComponent.class).get()
 		);
 		
 		logger.info("initialize");
 	}
 	
-	@Override
-	public void addedToEngine(Engine engine) {
-		super.addedToEngine(engine);
-		engine.addEntityListener(getFamily(), this);
-	}
-	
-	@Override
-	public void removedFromEngine(Engine engine) {
-		super.removedFromEngine(engine);
-		engine.removeEntityListener(this);
-	}
-	
-	@Override
-	public void entityAdded(Entity entity) {
-		setupTransitions(entity);
-	}
-
-	@Override
-	public void entityRemoved(Entity entity) {
-		
-	}
-
 	@Override
 	protected void processEntity(Entity entity, float deltaTime) {
 		AnimationControlComponent control = Mappers.animControl.get(entity);
@@ -118,27 +98,4 @@ public class AnimationControlSystem extends IteratingSystem implements EntityLis
 		
 		return score;
 	}
-	
-	private void setupTransitions(Entity entity) {
-		AnimationControlComponent animControl = Mappers.animControl.get(entity);
-		SpineComponent spine = Mappers.spine.get(entity);
-		AnimationStateData data = spine.state.getData();
-		
-		data.setDefaultMix(animControl.data.defaultTransition());
-		
-		Array<Animation> animations = data.getSkeletonData().getAnimations();
-		for (int i = 0; i < animations.size; ++i) {
-			for (int j = 0; j < animations.size; ++j) {
-				if (i == j) { continue; }
-				
-				Animation from = animations.get(i);
-				Animation to = animations.get(j);
-				
-				if (animControl.data.hasTransition(from, to)) {
-					float duration = animControl.data.transition(from, to);
-					data.setMix(from, to, duration);
-				}
-			}
-		}
-	}
 }
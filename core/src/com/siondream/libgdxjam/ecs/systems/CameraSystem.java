@@ -49,6 +49,17 @@ public class CameraSystem extends EntitySystem implements InputProcessor, Dispos
 	private Tween tween;
 	private boolean cameraMoving;
 	
+	// Camera position after the last two updates, for interpolate()
+	private Vector2 previous = new Vector2();
+	private Vector2 current = new Vector2();
+	private boolean tracked = false;
+	
+	// Fly mode keys, read by pollInput() on the GL thread
+	private boolean leftPressed;
+	private boolean rightPressed;
+	private boolean upPressed;
+	private boolean downPressed;
+	
 	private Family targetFamily = Family.all(
 		PhysicsComponent.class,
 		PlayerComponent.class
@@ -84,28 +95,59 @@ public class CameraSystem extends EntitySystem implements InputProcessor, Dispos
 	
 	@Override
 	public void update(float deltaTime) {
+		previous.set(current);
+		
 		if (flyMode) {
 			updateFlyMode(deltaTime);
 		}
 		else {
 			updateTrackTarget(deltaTime);
 		}
+		
+		current.set(camera.position.x, camera.position.y);
+		
+		if (!tracked) {
+			previous.set(current);
+			tracked = true;
+		}
+	}
+	
+	/**
+	 * Reads the keys the next update uses. GL thread only, before the
+	 * simulation starts.
+	 */
+	public void pollInput() {
+		leftPressed = Gdx.input.isKeyPressed(Keys.LEFT);
+		rightPressed = Gdx.input.isKeyPressed(Keys.RIGHT);
+		upPressed = Gdx.input.isKeyPressed(Keys.UP);
+		downPressed = Gdx.input.isKeyPressed(Keys.DOWN);
+	}
+	
+	/**
+	 * Places the camera between its position after the previous and the last
+	 * update, alpha 1 puts it back where the simulation left it.
+	 */
+	public void interpolate(float alpha) {
+		if (!tracked) { return; }
+		
+		camera.position.x = previous.x + (current.x - previous.x) * alpha;
+		camera.position.y = previous.y + (current.y - previous.y) * alpha;
 	}
 	
 	private void updateFlyMode(float deltaTime) {
 		velocity.set(0.0f, 0.0f);
 		
-		if (Gdx.input.isKeyPressed(Keys.RIGHT)) {
+		if (rightPressed) {
 			velocity.x = 1.0f;
 		}
-		else if (Gdx.input.isKeyPressed(Keys.LEFT)) {
+		else if (leftPressed) {
 			velocity.x = -1.0f;
 		}
 		
-		if (Gdx.input.isKeyPressed(Keys.UP)) {
+		if (upPressed) {
 			velocity.y = 1.0f;
 		}
-		else if (Gdx.input.isKeyPressed(Keys.DOWN)) {
+		else if (downPressed) {
 			velocity.y = -1.0f;
 		}
 		
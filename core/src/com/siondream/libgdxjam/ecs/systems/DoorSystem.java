@@ -56,6 +56,7 @@ public class DoorSystem extends EntitySystem implements EntityListener
 
 	public void update (float deltaTime) 
 	{
+		PhysicsSystem physicsSystem = getEngine().getSystem(PhysicsSystem.class);
 		DoorComponent doorComponent;
 		for(Entity door : doorsToOpen)
 		{
@@ -64,6 +65,7 @@ public class DoorSystem extends EntitySystem implements EntityListener
 				
 			PhysicsComponent physics = Mappers.physics.get(door);
 			physics.body.setTransform(physics.body.getPosition().add(0f, 1.2f), physics.body.getAngle());
+			physicsSystem.teleport(door);
 		}
 		
 		for(Entity door : doorsToClose)
@@ -73,6 +75,7 @@ public class DoorSystem extends EntitySystem implements EntityListener
 				
 			PhysicsComponent physics = Mappers.physics.get(door);
 			physics.body.setTransform(physics.body.getPosition().sub(0f, 1.2f), physics.body.getAngle());
+			physicsSystem.teleport(door);
 		}
 		
 		doorsToOpen.clear();
@@ -1,78 +1,159 @@
 package com.siondream.libgdxjam.ecs.systems;
 
-import java.util.Comparator;
-
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.components.LayerComponent;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
-import com.siondream.libgdxjam.ecs.components.RootComponent;
 import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
 
-public class LayerSystem extends IteratingSystem {
+/**
+ * Keeps the children of every node with a LayerComponent ordered by layer.
+ *
+ * Layer name to index maps are built once, when the owner enters the engine,
+ * and every child caches its resolved ZIndexComponent.layerIndex. Only the
+ * parents that gained a child, or whose child changed layer through
+ * setLayer(), are re-sorted on the next update, with a stable insertion sort
+ * over the cached indices. An update with no changes does nothing.
+ */
+public class LayerSystem extends EntitySystem implements EntityListener {
+	private static final Family family = Family.all(NodeComponent.class).get();
+	
 	private Logger logger = new Logger(
 		LayerSystem.class.getSimpleName(),
 		Env.LOG_LEVEL
 	);
-	private EntityComparator comparator = new EntityComparator();
+	private ObjectSet<Entity> dirty = new ObjectSet<Entity>();
 	
 	public LayerSystem() {
-		super(Family.all(
-			RootComponent.class,
-			LayerComponent.class
-		).get());
-		
 		logger.info("initialize");
 	}
+	
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		engine.addEntityListener(family, this);
+		
+		for (Entity entity : engine.getEntitiesFor(family)) {
+			entityAdded(entity);
+		}
+	}
+	
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+		dirty.clear();
+	}
+	
+	@Override
+	public void entityAdded(Entity entity) {
+		if (Mappers.layer.has(entity)) {
+			buildLayerIndex(Mappers.layer.get(entity));
+			dirty.add(entity);
+		}
+		
+		markParent(entity);
+	}
 
 	@Override
-	protected void processEntity(Entity entity, float deltaTime) {
-		sortEntity(entity);
+	public void entityRemoved(Entity entity) {
+		// Removing a child keeps its siblings in order
+		dirty.remove(entity);
 	}
 	
-	private void sortEntity(Entity entity) {
-		if (!Mappers.layer.has(entity) || !Mappers.node.has(entity)) { return; }
+	/**
+	 * Moves the entity to another layer of its parent. ZIndexComponent.layer
+	 * should not be written directly once the entity is in the engine.
+	 */
+	public void setLayer(Entity entity, String layer) {
+		ZIndexComponent index = Mappers.index.get(entity);
 		
-		LayerComponent layer = Mappers.layer.get(entity);
-		NodeComponent node = Mappers.node.get(entity);
+		if (index.layer.equals(layer)) { return; }
 		
-		buildLayerIndex(layer);
-		comparator.setLayer(layer);
-		node.children.sort(comparator);
+		index.layer = layer;
+		markParent(entity);
+	}
+	
+	/**
+	 * Re-sorts the siblings of an entity that was attached to its parent
+	 * after entering the engine.
+	 */
+	public void attached(Entity entity) {
+		markParent(entity);
+	}
+	
+	@Override
+	public void update(float deltaTime) {
+		if (dirty.size == 0) { return; }
 		
-		for (Entity child : node.children) {
-			sortEntity(child);
+		for (Entity entity : dirty) {
+			sortChildren(entity);
 		}
+		
+		dirty.clear();
 	}
 	
-	private void buildLayerIndex(LayerComponent layer) {
-		layer.map.clear();
+	private void markParent(Entity entity) {
+		Entity parent = Mappers.node.get(entity).parent;
 		
-		int index = 0;
-		for (String name : layer.names) {
-			layer.map.put(name, index++);
+		if (parent != null && Mappers.layer.has(parent)) {
+			dirty.add(parent);
 		}
 	}
 	
-	public static class EntityComparator implements Comparator<Entity> {
-		private LayerComponent layer;
+	private void sortChildren(Entity entity) {
+		if (!Mappers.node.has(entity)) { return; }
 		
-		public void setLayer(LayerComponent layer) {
-			this.layer = layer;
+		LayerComponent layer = Mappers.layer.get(entity);
+		Array<Entity> children = Mappers.node.get(entity).children;
+		// Untyped Arrays are backed by Object[]
+		Object[] items = children.items;
+		
+		for (int i = 0; i < children.size; ++i) {
+			resolveLayerIndex(layer, (Entity)items[i]);
 		}
 		
-		@Override
-		public int compare(Entity e1, Entity e2) {
-			if (!Mappers.index.has(e1) || !Mappers.index.has(e2)) { return 0; }
+		// Stable and linear when the array is already nearly sorted
+		for (int i = 1; i < children.size; ++i) {
+			Object child = items[i];
+			int key = getLayerIndex((Entity)child);
+			int j = i - 1;
 			
-			ZIndexComponent index1 = Mappers.index.get(e1);
-			ZIndexComponent index2 = Mappers.index.get(e2);
+			while (j >= 0 && getLayerIndex((Entity)items[j]) > key) {
+				items[j + 1] = items[j];
+				--j;
+			}
 			
-			return layer.map.get(index1.layer) - layer.map.get(index2.layer);
+			items[j + 1] = child;
+		}
+	}
+	
+	private static void resolveLayerIndex(LayerComponent layer, Entity entity) {
+		if (!Mappers.index.has(entity)) { return; }
+		
+		ZIndexComponent index = Mappers.index.get(entity);
+		index.layerIndex = layer.map.get(index.layer, 0);
+	}
+	
+	private static int getLayerIndex(Entity entity) {
+		ZIndexComponent index = Mappers.index.get(entity);
+		return index != null ? index.layerIndex : 0;
+	}
+	
+	private static void buildLayerIndex(LayerComponent layer) {
+		layer.map.clear();
+		
+		int index = 0;
+		for (String name : layer.names) {
+			layer.map.put(name, index++);
 		}
 	}
 }
@@ -1,5 +1,6 @@
 package com.siondream.libgdxjam.ecs.systems;
 
+import box2dLight.Light;
 import box2dLight.RayHandler;
 
 import com.badlogic.ashley.core.Engine;
@@ -8,6 +9,7 @@ import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.libgdxjam.Env;
@@ -28,6 +30,8 @@ public class LightSystem extends IteratingSystem implements EntityListener, Disp
 		Env.LOG_LEVEL
 	);
 	private RayHandler rayHandler;
+	// Removing a light frees its meshes, which has to happen on the GL thread
+	private Array<Light> pendingRemoval = new Array<Light>();
 	
 	public LightSystem(World world) {
 		super(family);
@@ -79,7 +83,19 @@ public class LightSystem extends IteratingSystem implements EntityListener, Disp
 	public void entityRemoved(Entity entity)
 	{
 		LightComponent light = Mappers.light.get(entity);
-		light.light.remove();
+		pendingRemoval.add(light.light);
+	}
+	
+	/**
+	 * Removes the lights of the entities that left the engine since the last
+	 * call, from the GL thread while the simulation is not running.
+	 */
+	public void removePending() {
+		for (Light light : pendingRemoval) {
+			light.remove();
+		}
+		
+		pendingRemoval.clear();
 	}
 	
 	@Override
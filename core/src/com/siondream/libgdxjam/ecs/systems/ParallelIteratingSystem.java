@@ -0,0 +1,145 @@
+package com.siondream.libgdxjam.ecs.systems;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * IteratingSystem that spreads processEntity() over a pool of worker threads.
+ *
+ * The entity list is cut into chunks of chunkSize entities. The workers and
+ * the thread calling update() claim chunks from a shared counter until none
+ * are left, so a thread that drew cheap entities simply takes more chunks.
+ * update() returns once every chunk is processed.
+ *
+ * processEntity() may run on any of those threads at the same time for
+ * different entities. It must only touch the components of the entity it is
+ * given and anything it reads has to stay unchanged during the update. Work
+ * that has to happen on the calling thread belongs in update(), after
+ * super.update().
+ *
+ * With no workers, or entities for a single chunk, entities are processed in
+ * order on the calling thread.
+ */
+public abstract class ParallelIteratingSystem extends IteratingSystem implements Disposable {
+	private final int workers;
+	private final int chunkSize;
+	private final AsyncExecutor executor;
+	private final Array<AsyncResult<Void>> results = new Array<AsyncResult<Void>>();
+	private final AtomicInteger nextChunk = new AtomicInteger();
+	private final AsyncTask<Void> task = new AsyncTask<Void>() {
+		@Override
+		public Void call() throws Exception {
+			processChunks();
+			return null;
+		}
+	};
+	
+	private boolean parallel = true;
+	private float deltaTime;
+	
+	public ParallelIteratingSystem(Family family, int workers, int chunkSize) {
+		this(family, workers, chunkSize, 0);
+	}
+	
+	public ParallelIteratingSystem(Family family, int workers, int chunkSize, int priority) {
+		super(family, priority);
+		
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive");
+		}
+		
+		this.workers = Math.max(workers, 0);
+		this.chunkSize = chunkSize;
+		this.executor = this.workers > 0 ? new AsyncExecutor(this.workers) : null;
+	}
+	
+	public boolean isParallel() {
+		return parallel;
+	}
+	
+	/**
+	 * Switches between the worker threads and processing in order on the
+	 * calling thread, useful to tell a threading issue from a logic one.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+	
+	@Override
+	public void update(float deltaTime) {
+		ImmutableArray<Entity> entities = getEntities();
+		
+		if (executor == null || !parallel || entities.size() <= chunkSize) {
+			super.update(deltaTime);
+			return;
+		}
+		
+		this.deltaTime = deltaTime;
+		nextChunk.set(0);
+		
+		int chunks = (entities.size() + chunkSize - 1) / chunkSize;
+		int tasks = Math.min(workers, chunks - 1);
+		
+		for (int i = 0; i < tasks; ++i) {
+			results.add(executor.submit(task));
+		}
+		
+		// The calling thread would only wait otherwise
+		GdxRuntimeException error = null;
+		
+		try {
+			processChunks();
+		}
+		catch (RuntimeException e) {
+			error = new GdxRuntimeException(e);
+		}
+		
+		// Every task has to be done before entities change again
+		for (int i = 0; i < results.size; ++i) {
+			try {
+				results.get(i).get();
+			}
+			catch (GdxRuntimeException e) {
+				if (error == null) { error = e; }
+			}
+		}
+		
+		results.clear();
+		
+		if (error != null) {
+			throw error;
+		}
+	}
+	
+	@Override
+	public void dispose() {
+		if (executor != null) {
+			executor.dispose();
+		}
+	}
+	
+	private void processChunks() {
+		ImmutableArray<Entity> entities = getEntities();
+		int size = entities.size();
+		float deltaTime = this.deltaTime;
+		int start;
+		
+		while ((start = nextChunk.getAndIncrement() * chunkSize) < size) {
+			int end = Math.min(start + chunkSize, size);
+			
+			for (int i = start; i < end; ++i) {
+				processEntity(entities.get(i), deltaTime);
+			}
+		}
+	}
+}
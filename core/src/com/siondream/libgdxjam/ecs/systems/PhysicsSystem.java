@@ -1,15 +1,15 @@
 package com.siondream.libgdxjam.ecs.systems;
 
+import java.util.Arrays;
+
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Logger;
-import com.badlogic.gdx.utils.ObjectMap;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.NodeUtils;
@@ -19,27 +19,47 @@ import com.siondream.libgdxjam.ecs.components.TransformComponent;
 import com.siondream.libgdxjam.physics.Categories;
 import com.siondream.libgdxjam.physics.CollisionHandler;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.World;
 
+/**
+ * Steps the Box2D world and mirrors the bodies back onto their transforms.
+ *
+ * Every registered body owns a slot in a set of dense arrays holding its
+ * position and angle before and after the last step. They are refreshed in
+ * a single pass right after the step, so each body is only queried once per
+ * step and inactive bodies are not queried at all. Transforms are then
+ * written from the arrays. interpolate() blends them between the last two
+ * steps for rendering.
+ *
+ * Code that moves or activates a body outside of the world step calls
+ * teleport(), or interpolate() would keep drawing it where it was last read.
+ */
 public class PhysicsSystem extends EntitySystem implements EntityListener, Disposable {
 	private static final Family family = Family.all(PhysicsComponent.class).get();
 	private final static int VELOCITY_ITERATIONS = 10;
 	private final static int POSITION_ITERATIONS = 10;
 	
-	private ImmutableArray<Entity> entities;
-	private ObjectMap<Entity, PhysicsComponent> bodies = new ObjectMap<Entity, PhysicsComponent>();
-	private ObjectMap<Entity, TransformComponent> transforms = new ObjectMap<Entity, TransformComponent>();
+	// Body registry, slot i holds entities[i], removal swaps the last slot in
+	private int count;
+	private Entity[] entities = new Entity[64];
+	private Body[] bodies = new Body[64];
+	private boolean[] active = new boolean[64];
+	private float[] previousX = new float[64];
+	private float[] previousY = new float[64];
+	private float[] previousAngle = new float[64];
+	private float[] currentX = new float[64];
+	private float[] currentY = new float[64];
+	private float[] currentAngle = new float[64];
 	
 	private Array<Body> pendingRemoval = new Array<Body>();
 	private CollisionHandler handler = new CollisionHandler();
 	private World world = new World(Env.GRAVITY, Env.DO_SLEEP);
 	private Categories categories ;
-	private float alpha;
-	private boolean interpolate = false;
 	
 	private Logger logger = new Logger(
-		ParticleSystem.class.getSimpleName(),
+		PhysicsSystem.class.getSimpleName(),
 		Env.LOG_LEVEL
 	);
 	
@@ -69,25 +89,64 @@ public class PhysicsSystem extends EntitySystem implements EntityListener, Dispo
 		world.dispose();
 	}
 	
-	public void setAlpha(float alpha) {
-		this.alpha = alpha;
+	/**
+	 * Writes transforms blended between the previous and the current step,
+	 * alpha 1 puts them back on the simulated state.
+	 */
+	public void interpolate(float alpha) {
+		for (int i = 0; i < count; ++i) {
+			TransformComponent transform = Mappers.transform.get(entities[i]);
+			
+			if (transform == null) { continue; }
+			
+			transform.position.x = previousX[i] + (currentX[i] - previousX[i]) * alpha;
+			transform.position.y = previousY[i] + (currentY[i] - previousY[i]) * alpha;
+			transform.angle = (previousAngle[i] + (currentAngle[i] - previousAngle[i]) * alpha) * MathUtils.radiansToDegrees;
+		}
+	}
+	
+	/**
+	 * Snaps the stored state of the entity's body, and its transform, to
+	 * where the body is now, so it is drawn there right away rather than
+	 * blended from its last read position.
+	 */
+	public void teleport(Entity entity) {
+		PhysicsComponent physics = Mappers.physics.get(entity);
+		
+		if (physics == null || physics.index < 0) { return; }
+		
+		int index = physics.index;
+		Body body = bodies[index];
+		Vector2 position = body.getPosition();
+		
+		active[index] = body.isActive();
+		currentX[index] = previousX[index] = position.x;
+		currentY[index] = previousY[index] = position.y;
+		currentAngle[index] = previousAngle[index] = body.getAngle();
+		
+		TransformComponent transform = Mappers.transform.get(entity);
+		
+		if (transform != null) {
+			transform.position.set(position);
+			transform.angle = currentAngle[index] * MathUtils.radiansToDegrees;
+		}
 	}
 	
 	@Override
 	public void update(float deltaTime) {
-		copyTransforms();
-		
+		handler.beginStep();
 		world.step(deltaTime, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+		handler.endStep();
 		processPendingBodyRemoval();
 		
-		interpolateTransforms();
+		readTransforms();
+		interpolate(1.0f);
 	}
 	
 	@Override
 	public void addedToEngine(Engine engine) {
 		super.addedToEngine(engine);
 		engine.addEntityListener(family, Integer.MAX_VALUE, this);
-		entities = engine.getEntitiesFor(family);
 	}
 	
 	@Override
@@ -98,11 +157,10 @@ public class PhysicsSystem extends EntitySystem implements EntityListener, Dispo
 
 	@Override
 	public void entityAdded(Entity entity) {
-		bodies.put(entity, Mappers.physics.get(entity));
-		transforms.put(entity, new TransformComponent());
-		
 		PhysicsComponent physics = Mappers.physics.get(entity);
 		
+		if (physics.index >= 0) { return; }
+		
 		if (Mappers.node.has(entity)) {
 			NodeUtils.computeWorld(entity);
 			NodeComponent node = Mappers.node.get(entity);
@@ -118,56 +176,119 @@ public class PhysicsSystem extends EntitySystem implements EntityListener, Dispo
 				transform.angle * MathUtils.degreesToRadians
 			);
 		}
+		
+		if (count == bodies.length) {
+			grow();
+		}
+		
+		int index = count++;
+		Body body = physics.body;
+		
+		physics.index = index;
+		entities[index] = entity;
+		bodies[index] = body;
+		active[index] = body.isActive();
+		currentX[index] = previousX[index] = body.getPosition().x;
+		currentY[index] = previousY[index] = body.getPosition().y;
+		currentAngle[index] = previousAngle[index] = body.getAngle();
 	}
 
 	@Override
 	public void entityRemoved(Entity entity) {
-		PhysicsComponent physics = bodies.remove(entity);
-		pendingRemoval.add(physics.body);
-		transforms.remove(entity);
+		int index = indexOf(entity);
+		
+		if (index < 0) { return; }
+		
+		pendingRemoval.add(bodies[index]);
+		
+		PhysicsComponent physics = Mappers.physics.get(entity);
+		
+		if (physics != null) {
+			physics.index = -1;
+		}
+		
+		int last = --count;
+		
+		if (index != last) {
+			entities[index] = entities[last];
+			bodies[index] = bodies[last];
+			active[index] = active[last];
+			previousX[index] = previousX[last];
+			previousY[index] = previousY[last];
+			previousAngle[index] = previousAngle[last];
+			currentX[index] = currentX[last];
+			currentY[index] = currentY[last];
+			currentAngle[index] = currentAngle[last];
+			Mappers.physics.get(entities[index]).index = index;
+		}
+		
+		entities[last] = null;
+		bodies[last] = null;
 	}
 	
-	private void copyTransforms() {
-		for (Entity entity : entities) {
-			PhysicsComponent physics = Mappers.physics.get(entity);
+	/**
+	 * Shifts the current state into the previous one and reads the bodies
+	 * back. A body that just became active snaps, so a teleport while it was
+	 * asleep is not blended.
+	 */
+	private void readTransforms() {
+		for (int i = 0; i < count; ++i) {
+			previousX[i] = currentX[i];
+			previousY[i] = currentY[i];
+			previousAngle[i] = currentAngle[i];
 			
-			if (!physics.body.isActive()) { return; }
+			Body body = bodies[i];
+			boolean wasActive = active[i];
 			
-			TransformComponent transform = transforms.get(entity);
-			transform.position.set(physics.body.getPosition());
-			transform.angle = physics.body.getAngle();
-		}
-	}
-	
-	private void interpolateTransforms() {
-		for (Entity entity : entities) {
-			PhysicsComponent physics = Mappers.physics.get(entity);
-			TransformComponent transform = Mappers.transform.get(entity);
+			active[i] = body.isActive();
 			
-			if (transform == null) { continue; }
+			if (!active[i]) { continue; }
 			
-			TransformComponent old = transforms.get(entity);	
-			if (interpolate) {
-				if (physics.body.isActive()) {
-					transform.position.x = physics.body.getPosition().x * alpha + old.position.x * (1.0f - alpha);
-					transform.position.y = physics.body.getPosition().y * alpha + old.position.y * (1.0f - alpha);
-					transform.angle = physics.body.getAngle() * MathUtils.radiansToDegrees * alpha + old.angle * (1.0f - alpha);
-				}
-				else {
-					physics.body.setTransform(
-						transform.position,
-						MathUtils.degreesToRadians * transform.angle
-					);
-				}
-			}
-			else {
-				transform.position.x = physics.body.getPosition().x;
-				transform.position.y = physics.body.getPosition().y;
-				transform.angle = physics.body.getAngle() * MathUtils.radiansToDegrees;
+			Vector2 position = body.getPosition();
+			currentX[i] = position.x;
+			currentY[i] = position.y;
+			currentAngle[i] = body.getAngle();
+			
+			if (!wasActive) {
+				previousX[i] = currentX[i];
+				previousY[i] = currentY[i];
+				previousAngle[i] = currentAngle[i];
 			}
 		}
 	}
 	
+	/**
+	 * The component is already gone when it was removed from the entity
+	 * rather than the entity from the engine, fall back to a scan then.
+	 */
+	private int indexOf(Entity entity) {
+		PhysicsComponent physics = Mappers.physics.get(entity);
+		
+		if (physics != null) {
+			return physics.index;
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			if (entities[i] == entity) { return i; }
+		}
+		
+		return -1;
+	}
+	
+	private void grow() {
+		int capacity = bodies.length * 2;
+		
+		entities = Arrays.copyOf(entities, capacity);
+		bodies = Arrays.copyOf(bodies, capacity);
+		active = Arrays.copyOf(active, capacity);
+		previousX = Arrays.copyOf(previousX, capacity);
+		previousY = Arrays.copyOf(previousY, capacity);
+		previousAngle = Arrays.copyOf(previousAngle, capacity);
+		currentX = Arrays.copyOf(currentX, capacity);
+		currentY = Arrays.copyOf(currentY, capacity);
+		currentAngle = Arrays.copyOf(currentAngle, capacity);
+	}
+	
 	private void processPendingBodyRemoval() {
 		for (Body body : pendingRemoval) {
 			logger.info("destroying body: " + body);
@@ -2,7 +2,9 @@ package com.siondream.libgdxjam.ecs.systems;
 
 import box2dLight.RayHandler;
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.ashley.systems.IteratingSystem;
@@ -16,25 +18,18 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.physics.box2d.Box2DDebugRenderer;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.viewport.Viewport;
-import com.esotericsoftware.spine.SkeletonRenderer;
 import com.esotericsoftware.spine.SkeletonRendererDebug;
 import com.siondream.libgdxjam.Env;
-import com.siondream.libgdxjam.ecs.Mappers;
-import com.siondream.libgdxjam.ecs.NodeUtils;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
-import com.siondream.libgdxjam.ecs.components.ParticleComponent;
 import com.siondream.libgdxjam.ecs.components.RootComponent;
-import com.siondream.libgdxjam.ecs.components.SizeComponent;
-import com.siondream.libgdxjam.ecs.components.SpineComponent;
-import com.siondream.libgdxjam.ecs.components.TextureComponent;
-import com.siondream.libgdxjam.ecs.components.TransformComponent;
+import com.siondream.libgdxjam.rendering.RenderQueue;
+import com.siondream.libgdxjam.rendering.RenderSnapshot;
 
 public class RenderingSystem extends IteratingSystem implements Disposable {
 	private PolygonSpriteBatch batch;
@@ -47,10 +42,23 @@ public class RenderingSystem extends IteratingSystem implements Disposable {
 	private boolean debug;
 	private ShapeRenderer shapeRenderer;
 	private Box2DDebugRenderer box2DRenderer;
-	private SkeletonRenderer spineRenderer;
 	private SkeletonRendererDebug spineDebugRenderer;
-	private Family renderable;
-	private BoundingBox bounds = new BoundingBox();
+	private RenderQueue queue = new RenderQueue();
+	private RenderSnapshot front = new RenderSnapshot();
+	private RenderSnapshot back = new RenderSnapshot();
+	private int frame;
+	private Rectangle view = new Rectangle();
+	private EntityListener renderables = new EntityListener() {
+		@Override
+		public void entityAdded(Entity entity) {
+			queue.add(entity);
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+			queue.remove(entity);
+		}
+	};
 	
 	private Logger logger = new Logger(
 		RenderingSystem.class.getSimpleName(),
@@ -94,145 +102,138 @@ public class RenderingSystem extends IteratingSystem implements Disposable {
 			drawContacts
 		);
 		
-		spineRenderer = new SkeletonRenderer();
 		spineDebugRenderer = new SkeletonRendererDebug();
-		
-		renderable = Family.all(
-			NodeComponent.class,
-			TransformComponent.class,
-			SizeComponent.class
-		).one(
-			TextureComponent.class,
-			ParticleComponent.class,
-			SpineComponent.class
-		).get();
-
 	}
 	
+	/**
+	 * Draws the front snapshot, the lights and the UI. The world pass only
+	 * reads the snapshot, so it can run while the next frame is simulated.
+	 * Debug drawing reads the live state and cannot.
+	 */
 	@Override
 	public void update(float deltaTime) {
 		Gdx.gl.glClearColor(0, 0, 0, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 		
-		renderWorld(deltaTime);
+		renderWorld();
 		renderLights();
 		renderUI();
 		renderDebug();
 	}
 	
-	@Override
-	protected void processEntity(Entity entity, float deltaTime) {
-		renderChildren(entity);
+	/**
+	 * Records what is visible into the back snapshot. Only reads simulation
+	 * state and makes no GL calls, it runs right after the simulation on
+	 * whichever thread ran it.
+	 */
+	public void extract() {
+		Camera camera = viewport.getCamera();
+		camera.update();
+		back.begin(frame++, camera.combined);
+		queue.begin(getView((OrthographicCamera)camera));
+		super.update(0.0f);
+		queue.collectVisible();
+		queue.record(back);
 	}
 	
-	@Override
-	public void dispose() {
-		logger.info("dispose");
-		batch.dispose();
-	}
-
-	public void toggleDebug() {
-		debug = !debug;
-		logger.info("toggled debug: " + debug);
+	/**
+	 * Makes the last extracted snapshot the one update() draws and casts the
+	 * light rays for it. Neither the simulation nor update() may be running.
+	 */
+	public void swap() {
+		RenderSnapshot snapshot = front;
+		front = back;
+		back = snapshot;
+		
+		rayHandler.setCombinedMatrix((OrthographicCamera)viewport.getCamera());
+		rayHandler.update();
 	}
 	
-	public void setDebug(boolean debug) {
-		this.debug = debug;
-		logger.info("set debug: " + debug);
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		
+		for (Entity entity : engine.getEntitiesFor(RenderQueue.family)) {
+			queue.add(entity);
+		}
+		
+		engine.addEntityListener(RenderQueue.family, renderables);
 	}
 	
-	private void renderChildren(Entity entity) {
-		NodeComponent node = Mappers.node.get(entity);
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(renderables);
 		
-		for (Entity child : node.children) {
-			if (Mappers.node.has(child)) {
-				NodeUtils.computeTransform(child, entity);
-				applyTransform(child);
-			}
-			
-			renderEntity(child);
-			renderChildren(child);
+		for (Entity entity : engine.getEntitiesFor(RenderQueue.family)) {
+			queue.remove(entity);
 		}
 	}
 	
-	private void renderEntity(Entity entity) {
-		if (!renderable.matches(entity)) { return; }
-		
-		SizeComponent size = Mappers.size.get(entity);
-		Vector2 origin = Mappers.transform.get(entity).origin;
-		NodeComponent node = Mappers.node.get(entity);
-		
-		if (!inFrustum(node, size, origin)) { return; }
+	@Override
+	protected void processEntity(Entity entity, float deltaTime) {
+		queue.collectStatic(entity);
+	}
+	
+	@Override
+	public void dispose() {
+		logger.info("dispose");
+		batch.dispose();
+	}
 
-		if (Mappers.texture.has(entity)) {
-			renderTexture(entity);
-		}
-		else if (Mappers.particle.has(entity)) {
-			renderParticle(entity);
-		}
-		else if(Mappers.spine.has(entity)) {
-			renderSpineAnimation(entity);
-		}
+	public RenderQueue getQueue() {
+		return queue;
 	}
 	
-	private void applyTransform(Entity entity) {
-		NodeComponent node = Mappers.node.get(entity);
-		batch.setTransformMatrix(node.computed);
+	/**
+	 * Snapshot update() draws.
+	 */
+	public RenderSnapshot getSnapshot() {
+		return front;
 	}
 	
-	private void renderTexture(Entity entity) {
-		SizeComponent size = Mappers.size.get(entity);
-		TextureComponent texture = Mappers.texture.get(entity);
-		TransformComponent transform = Mappers.transform.get(entity);
-		
-		float originX = 0;//size.width * 0.5f;
-		float originY = 0;//size.height * 0.5f;
-		
-		batch.draw(
-			texture.region,
-			-originX, -originY,
-			originX, originY,
-			size.width, size.height,
-			transform.scale.x, transform.scale.y,
-			0.0f
-		);
+	/**
+	 * Draw calls issued by the world pass of the last frame.
+	 */
+	public int getRenderCalls() {
+		return batch.renderCalls;
 	}
 	
-	private void renderParticle(Entity entity) {
-		ParticleComponent particle = Mappers.particle.get(entity);
-		particle.effect.draw(batch);
+	public boolean isDebug() {
+		return debug;
 	}
 	
-	private void renderSpineAnimation(Entity entity)
-	{
-		SpineComponent spine = Mappers.spine.get(entity);
-		spineRenderer.draw(batch, spine.skeleton);
+	public void toggleDebug() {
+		debug = !debug;
+		logger.info("toggled debug: " + debug);
 	}
 	
-	private boolean inFrustum(NodeComponent node, SizeComponent size, Vector2 origin) {
-		float scale = Math.max(node.scale.x, node.scale.y);
-		float radius = Math.max(size.width, size.height) * scale;
-		
-		bounds.max.x = node.position.x + origin.x + radius;
-		bounds.max.y = node.position.y + origin.y + radius;
-		bounds.min.x = node.position.x + origin.x - radius;
-		bounds.min.y = node.position.y + origin.y - radius;
-		
-		return viewport.getCamera().frustum.boundsInFrustum(bounds);
+	public void setDebug(boolean debug) {
+		this.debug = debug;
+		logger.info("set debug: " + debug);
 	}
 	
-	private void renderWorld(float deltaTime) {
-		Camera camera = viewport.getCamera();
-		camera.update();
-		batch.setProjectionMatrix(camera.combined);
+	private void renderWorld() {
+		batch.setProjectionMatrix(front.getProjection());
 		batch.begin();
-		super.update(deltaTime);
+		front.submit(batch);
 		batch.end();
 	}
 	
+	private Rectangle getView(OrthographicCamera camera) {
+		float width = camera.viewportWidth * camera.zoom;
+		float height = camera.viewportHeight * camera.zoom;
+		
+		return view.set(
+			camera.position.x - width * 0.5f,
+			camera.position.y - height * 0.5f,
+			width,
+			height
+		);
+	}
+	
 	private void renderLights() {
-		rayHandler.setCombinedMatrix((OrthographicCamera)viewport.getCamera());
-		rayHandler.updateAndRender();
+		rayHandler.render();
 	}
 	
 	private void renderUI() {
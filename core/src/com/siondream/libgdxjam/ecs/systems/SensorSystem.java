@@ -1,23 +1,41 @@
 package com.siondream.libgdxjam.ecs.systems;
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.IteratingSystem;
-import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
 import com.siondream.libgdxjam.ecs.components.environment.SensorComponent;
 import com.siondream.libgdxjam.physics.Categories;
 import com.siondream.libgdxjam.physics.ContactAdapter;
+import com.siondream.libgdxjam.physics.ContactEvent;
 
-public class SensorSystem extends IteratingSystem 
+/**
+ * Resolves sensor contacts through a fixture to sensor index kept up to date
+ * as sensors enter and leave the engine, so a contact costs one lookup per
+ * fixture regardless of how many sensors the level has.
+ *
+ * Sensors count overlapping player and box fixtures. The enter reaction runs
+ * when the first thing the sensor is sensible to starts touching it and the
+ * exit reaction when the last one stops, once each, no matter how many
+ * fixtures are involved.
+ */
+public class SensorSystem extends EntitySystem implements EntityListener
 {
+	private static final Family family = Family.all(
+		PhysicsComponent.class,
+		SensorComponent.class
+	).get();
+	
 	private PhysicsSystem physicsSystem;
+	private ObjectMap<Fixture, SensorComponent> sensors = new ObjectMap<Fixture, SensorComponent>();
 
 	public SensorSystem(PhysicsSystem physicsSystem)
 	{
-		super(Family.all(PhysicsComponent.class, SensorComponent.class).get());
-		
 		this.physicsSystem = physicsSystem;
 		
 		Categories categories = physicsSystem.getCategories();
@@ -34,92 +52,126 @@ public class SensorSystem extends IteratingSystem
 			new SensorBoxContactListener()
 		);
 	}
-
+	
+	@Override
+	public void addedToEngine(Engine engine)
+	{
+		super.addedToEngine(engine);
+		
+		for (Entity entity : engine.getEntitiesFor(family))
+		{
+			entityAdded(entity);
+		}
+		
+		engine.addEntityListener(family, this);
+	}
+	
+	@Override
+	public void removedFromEngine(Engine engine)
+	{
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+		sensors.clear();
+	}
+	
 	@Override
-	protected void processEntity(Entity entity, float deltaTime)
+	public void entityAdded(Entity entity)
 	{
+		SensorComponent sensor = Mappers.sensor.get(entity);
 		
+		if (sensor.sensorFixture != null)
+		{
+			sensors.put(sensor.sensorFixture, sensor);
+		}
+	}
+	
+	@Override
+	public void entityRemoved(Entity entity)
+	{
+		SensorComponent sensor = Mappers.sensor.get(entity);
+		
+		if (sensor.sensorFixture != null)
+		{
+			sensors.remove(sensor.sensorFixture);
+		}
+	}
+	
+	private void onContact(ContactEvent event, boolean player, int delta)
+	{
+		SensorComponent sensorA = sensors.get(event.getFixtureA());
+		SensorComponent sensorB = sensors.get(event.getFixtureB());
+		
+		if (sensorA != null)
+		{
+			onContact(sensorA, player, delta);
+		}
+		
+		if (sensorB != null && sensorB != sensorA)
+		{
+			onContact(sensorB, player, delta);
+		}
+	}
+	
+	private static void onContact(SensorComponent sensor, boolean player, int delta)
+	{
+		int before = getSensed(sensor);
+		
+		if (player)
+		{
+			sensor.playerContacts = Math.max(0, sensor.playerContacts + delta);
+			sensor.isCollidingPlayer = sensor.playerContacts > 0;
+		}
+		else
+		{
+			sensor.boxContacts = Math.max(0, sensor.boxContacts + delta);
+			sensor.isCollidingBox = sensor.boxContacts > 0;
+		}
+		
+		int after = getSensed(sensor);
+		
+		if (before == 0 && after > 0 && sensor.sensorReactionEnter != null)
+		{
+			sensor.sensorReactionEnter.run();
+		}
+		else if (before > 0 && after == 0 && sensor.sensorReactionExit != null)
+		{
+			sensor.sensorReactionExit.run();
+		}
+	}
+	
+	private static int getSensed(SensorComponent sensor)
+	{
+		return (sensor.isPlayerSensible ? sensor.playerContacts : 0) +
+			   (sensor.isBoxSensible ? sensor.boxContacts : 0);
 	}
 	
 	private class SensorBoxContactListener extends ContactAdapter
 	{
 		@Override
-		public void beginContact(Contact contact) // TODO: NOT SURE BUT... I THINK SAME ENTITY IS PROCESSED AT LEAST TWICE
+		public void beginContact(ContactEvent event)
 		{
-			for (Entity entity : getEntities())
-			{
-				SensorComponent sensor = Mappers.sensor.get(entity);
-
-				if (!matches(contact, sensor.sensorFixture)) { continue; }
-
-				if(sensor.isBoxSensible &&
-						!sensor.isCollidingPlayer &&
-						sensor.sensorReactionEnter != null)
-				{
-					sensor.sensorReactionEnter.run();
-				}
-				sensor.isCollidingBox = true;
-			}
+			onContact(event, false, 1);
 		}
 		
 		@Override
-		public void endContact(Contact contact) 
+		public void endContact(ContactEvent event) 
 		{
-			for (Entity entity : getEntities())
-			{
-				SensorComponent sensor = Mappers.sensor.get(entity);
-
-				if (!matches(contact, sensor.sensorFixture)) { continue; }
-
-				if(sensor.isBoxSensible && 
-						!sensor.isCollidingPlayer &&
-						sensor.sensorReactionEnter != null)
-				{
-					sensor.sensorReactionExit.run();
-				}
-				sensor.isCollidingBox = false;
-			}
+			onContact(event, false, -1);
 		}
 	}
 	
 	private class SensorPlayerContactListener extends ContactAdapter
 	{
 		@Override
-		public void beginContact(Contact contact) // TODO: NOT SURE BUT... I THINK SAME ENTITY IS PROCESSED AT LEAST TWICE
+		public void beginContact(ContactEvent event)
 		{
-			for (Entity entity : getEntities())
-			{
-				SensorComponent sensor = Mappers.sensor.get(entity);
-
-				if (!matches(contact, sensor.sensorFixture)) { continue; }
-
-				if(sensor.isPlayerSensible && 
-						!sensor.isCollidingBox && 
-						sensor.sensorReactionEnter != null)
-				{
-					sensor.sensorReactionEnter.run();
-				}
-				sensor.isCollidingPlayer = true;
-			}
+			onContact(event, true, 1);
 		}
 		
 		@Override
-		public void endContact(Contact contact) // TODO: NOT SURE BUT... I THINK SAME ENTITY IS PROCESSED AT LEAST TWICE
+		public void endContact(ContactEvent event)
 		{
-			for (Entity entity : getEntities())
-			{
-				SensorComponent sensor = Mappers.sensor.get(entity);
-
-				if (!matches(contact, sensor.sensorFixture)) { continue; }
-
-				if(sensor.isPlayerSensible && 
-						!sensor.isCollidingBox && 
-						sensor.sensorReactionEnter != null)
-				{
-					sensor.sensorReactionExit.run();
-				}
-				sensor.isCollidingPlayer = false;
-			}
+			onContact(event, true, -1);
 		}
 	}
 
@@ -2,31 +2,180 @@ package com.siondream.libgdxjam.ecs.systems;
 
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
-import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Logger;
+import com.esotericsoftware.spine.AnimationState;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.SizeComponent;
 import com.siondream.libgdxjam.ecs.components.SpineComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
 
-public class SpineSystem extends IteratingSystem
+/**
+ * Advances, applies and poses every skeleton. Skeletons are independent, so
+ * they are updated on the worker threads.
+ *
+ * Animation state listeners are never called from the workers: notifications
+ * are held back while a state updates and delivered on the calling thread
+ * afterwards, entity by entity in family order, whether the update ran in
+ * parallel or not.
+ *
+ * Given a camera, skeletons get a level of detail from how far their bounds,
+ * the ones RenderQueue culls with, are from the view:
+ * - LOD_FULL, within VIEW_MARGIN: posed every step.
+ * - LOD_EVENTS, within DISTANT_MARGIN: the state advances and fires events
+ *   and completions every step, the skeleton is not posed.
+ * - LOD_DISTANT, further: same as LOD_EVENTS every DISTANT_INTERVAL steps,
+ *   with the time of the skipped ones.
+ *
+ * Listeners see the same events in the same order at every level, distant
+ * ones just see them up to DISTANT_INTERVAL steps late. Gameplay that reads
+ * bones calls pose() first.
+ *
+ * Dormant skeletons, see ActivitySystem, are paused rather than given a
+ * level: their state does not advance, so they fire no events until they
+ * wake up and carry on from where they stopped.
+ */
+public class SpineSystem extends ParallelIteratingSystem
 {
+	// A skeleton takes a few microseconds, smaller chunks are mostly overhead
+	private static final int CHUNK_SIZE = 8;
+	private static final float VIEW_MARGIN = 1.0f;
+	private static final float DISTANT_MARGIN = 8.0f;
+	private static final int DISTANT_INTERVAL = 4;
+	
 	private Logger logger = new Logger(
 		SpineSystem.class.getSimpleName(),
 		Env.LOG_LEVEL
 	);
 	
+	private OrthographicCamera camera;
+	private Rectangle view = new Rectangle();
+	private int step;
+	
+	/**
+	 * Every skeleton is posed every step.
+	 */
 	public SpineSystem() {
-		super(Family.all(SpineComponent.class).get());
+		this(null);
+	}
+	
+	/**
+	 * Levels of detail are picked from the view of camera.
+	 */
+	public SpineSystem(OrthographicCamera camera) {
+		super(Family.all(SpineComponent.class).get(), Env.WORKER_THREADS, CHUNK_SIZE);
 		
 		logger.info("initialize");
+		this.camera = camera;
+	}
+	
+	/**
+	 * Brings the skeleton up to date with its state when its level of detail
+	 * skipped posing it. Calling thread only.
+	 */
+	public static void pose(SpineComponent spine) {
+		if (spine.posed) { return; }
+		
+		spine.state.pose(spine.skeleton);
+		spine.skeleton.updateWorldTransform();
+		spine.posed = true;
+	}
+	
+	public void setCamera(OrthographicCamera camera) {
+		this.camera = camera;
+	}
+	
+	@Override
+	public void update(float deltaTime) {
+		++step;
+		
+		if (camera != null) {
+			float width = camera.viewportWidth * camera.zoom;
+			float height = camera.viewportHeight * camera.zoom;
+			
+			view.set(
+				camera.position.x - width * 0.5f,
+				camera.position.y - height * 0.5f,
+				width,
+				height
+			);
+		}
+		
+		super.update(deltaTime);
+		
+		ImmutableArray<Entity> entities = getEntities();
+		
+		for (int i = 0; i < entities.size(); ++i) {
+			Mappers.spine.get(entities.get(i)).state.drain();
+		}
 	}
 	
 	@Override
 	public void processEntity(Entity entity, float deltaTime) {
+		if (Mappers.dormant.has(entity)) { return; }
+		
 		SpineComponent animation = Mappers.spine.get(entity);
+		AnimationState state = animation.state;
+		int lod = getLod(entity);
+		
+		animation.lod = lod;
+		animation.pendingTime += deltaTime;
+		
+		// Distant skeletons take turns, by tree order, so they do not all land on the same step
+		if (lod == SpineComponent.LOD_DISTANT && (step + getOrder(entity)) % DISTANT_INTERVAL != 0) {
+			return;
+		}
 		
-		animation.state.update(deltaTime);
-		animation.state.apply(animation.skeleton);
-		animation.skeleton.updateWorldTransform();
+		state.setDeferred(true);
+		state.update(animation.pendingTime);
+		
+		if (lod == SpineComponent.LOD_FULL) {
+			state.apply(animation.skeleton);
+		}
+		else {
+			state.applyEvents();
+		}
+		
+		state.setDeferred(false);
+		animation.pendingTime = 0.0f;
+		animation.posed = lod == SpineComponent.LOD_FULL;
+		
+		if (animation.posed) {
+			animation.skeleton.updateWorldTransform();
+		}
+	}
+	
+	private int getLod(Entity entity) {
+		NodeComponent node = Mappers.node.get(entity);
+		SizeComponent size = Mappers.size.get(entity);
+		TransformComponent transform = Mappers.transform.get(entity);
+		
+		if (camera == null || node == null || size == null || transform == null) {
+			return SpineComponent.LOD_FULL;
+		}
+		
+		// Same bounds RenderQueue culls with
+		float scale = Math.max(node.scale.x, node.scale.y);
+		float radius = Math.max(size.width, size.height) * scale;
+		float x = node.position.x + transform.origin.x;
+		float y = node.position.y + transform.origin.y;
+		float distanceX = Math.max(view.x - (x + radius), (x - radius) - (view.x + view.width));
+		float distanceY = Math.max(view.y - (y + radius), (y - radius) - (view.y + view.height));
+		float distance = Math.max(distanceX, distanceY);
+		
+		if (distance <= VIEW_MARGIN) {
+			return SpineComponent.LOD_FULL;
+		}
+		
+		return distance <= DISTANT_MARGIN ? SpineComponent.LOD_EVENTS : SpineComponent.LOD_DISTANT;
+	}
+	
+	private static int getOrder(Entity entity) {
+		NodeComponent node = Mappers.node.get(entity);
+		return node != null ? node.order : 0;
 	}
 }
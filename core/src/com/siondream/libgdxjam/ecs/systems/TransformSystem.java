@@ -0,0 +1,176 @@
+package com.siondream.libgdxjam.ecs.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Logger;
+import com.siondream.libgdxjam.Env;
+import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.NodeUtils;
+import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+
+/**
+ * Keeps the node hierarchy flattened in parent before child order and brings
+ * every world transform up to date in a single pass, without recursion.
+ * Nodes whose local transform and parent did not change are skipped, see
+ * NodeUtils.updateWorld().
+ *
+ * The order is rebuilt lazily whenever a node enters or leaves the engine, or
+ * the tree no longer matches it. Every node remembers where it sits in its
+ * parent's children and how many children it had, which the update checks
+ * as it goes, so re-parenting or reordering siblings needs no extra call.
+ * Each node's position in the order is stored in NodeComponent.order so the
+ * renderer can keep tree order without walking the tree.
+ */
+public class TransformSystem extends EntitySystem implements EntityListener {
+	private static final Family family = Family.all(
+		NodeComponent.class,
+		TransformComponent.class
+	).get();
+	
+	private Logger logger = new Logger(
+		TransformSystem.class.getSimpleName(),
+		Env.LOG_LEVEL
+	);
+	
+	private ImmutableArray<Entity> entities;
+	private Array<Entity> ordered = new Array<Entity>();
+	private Array<NodeComponent> nodes = new Array<NodeComponent>();
+	private Array<TransformComponent> transforms = new Array<TransformComponent>();
+	private IntArray parents = new IntArray();
+	// Index in the parent's children and number of children, as of the last rebuild
+	private IntArray siblings = new IntArray();
+	private IntArray childCounts = new IntArray();
+	private boolean rebuild = true;
+	private int updated;
+	
+	public TransformSystem() {
+		logger.info("initialize");
+	}
+	
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		entities = engine.getEntitiesFor(family);
+		engine.addEntityListener(family, this);
+		rebuild = true;
+	}
+	
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+		clear();
+	}
+	
+	@Override
+	public void entityAdded(Entity entity) {
+		rebuild = true;
+	}
+
+	@Override
+	public void entityRemoved(Entity entity) {
+		rebuild = true;
+	}
+	
+	/**
+	 * World transforms recomputed by the last update.
+	 */
+	public int getUpdated() {
+		return updated;
+	}
+	
+	@Override
+	public void update(float deltaTime) {
+		if (rebuild) {
+			rebuildOrder();
+		}
+		
+		updated = 0;
+		
+		for (int i = 0; i < nodes.size; ++i) {
+			// Nodes before i are up to date and skipped on the second pass
+			if (!isInPlace(i)) {
+				rebuildOrder();
+				i = -1;
+				continue;
+			}
+			
+			int parent = parents.get(i);
+			
+			if (parent < 0) { continue; }
+			
+			if (NodeUtils.updateWorld(nodes.get(i), transforms.get(i), nodes.get(parent))) {
+				++updated;
+			}
+		}
+	}
+	
+	private void rebuildOrder() {
+		clear();
+		
+		for (Entity entity : entities) {
+			if (Mappers.node.get(entity).parent == null) {
+				add(entity, -1, -1);
+			}
+		}
+		
+		rebuild = false;
+	}
+	
+	private void add(Entity entity, int parent, int sibling) {
+		NodeComponent node = Mappers.node.get(entity);
+		int index = nodes.size;
+		
+		node.order = index;
+		ordered.add(entity);
+		nodes.add(node);
+		transforms.add(Mappers.transform.get(entity));
+		parents.add(parent);
+		siblings.add(sibling);
+		childCounts.add(node.children.size);
+		
+		for (int i = 0; i < node.children.size; ++i) {
+			Entity child = node.children.get(i);
+			
+			if (family.matches(child)) {
+				add(child, index, i);
+			}
+		}
+	}
+	
+	/**
+	 * Whether node i still sits where the last rebuild put it. Adding or
+	 * removing a child changes the parent's count, moving one changes what
+	 * its parent holds at its sibling index.
+	 */
+	private boolean isInPlace(int i) {
+		NodeComponent node = nodes.get(i);
+		
+		if (node.children.size != childCounts.get(i)) { return false; }
+		
+		int parent = parents.get(i);
+		
+		if (parent < 0) { return node.parent == null; }
+		
+		Array<Entity> children = nodes.get(parent).children;
+		int sibling = siblings.get(i);
+		
+		return sibling < children.size && children.get(sibling) == ordered.get(i);
+	}
+	
+	private void clear() {
+		ordered.clear();
+		nodes.clear();
+		transforms.clear();
+		parents.clear();
+		siblings.clear();
+		childCounts.clear();
+	}
+}
@@ -1,5 +1,7 @@
 package com.siondream.libgdxjam.ecs.systems;
 
+import java.util.Arrays;
+
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.EntityListener;
@@ -10,22 +12,71 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.physics.box2d.RayCastCallback;
-import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.ObjectMap;
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.ObjectMap.Entries;
+import com.badlogic.gdx.utils.ObjectMap.Entry;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pool.Poolable;
+import com.badlogic.gdx.utils.Queue;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.components.ObservableComponent;
 import com.siondream.libgdxjam.ecs.components.ObserverComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderGridComponent;
+import com.siondream.libgdxjam.ecs.components.RootComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+import com.siondream.libgdxjam.physics.OccluderGrid;
+import com.siondream.libgdxjam.utils.SpatialHash;
 
+/**
+ * Keeps, per observer, which observables it can see.
+ *
+ * The FOV test is cheap and runs every step for every nearby pair. Raycasts
+ * are not: pairs in FOV are only queued for one when either end moved more
+ * than MOVE_THRESHOLD since the last cast, or the result is older than
+ * MAX_AGE steps. The queue is drained round robin, at most RAYCAST_BUDGET
+ * casts per update, and canSee() answers with the last known result.
+ *
+ * Rotation only matters to the FOV test, which is never skipped, so it does
+ * not invalidate a cached raycast.
+ *
+ * Raycasts do not go through Box2D. The static level outlines are tested
+ * against the OccluderGrid the scene loader baked, doors, boxes and anything
+ * else with an OccluderComponent are few and tested one by one, placed once
+ * per update from their transforms. Agents do not block sight.
+ */
 public class VisionSystem extends IteratingSystem
 						  implements EntityListener, DebugRenderer {
-	private ObjectMap<Entity, ObjectSet<Entity>> vision = new ObjectMap<Entity, ObjectSet<Entity>>();
-	private VisionCallback callback = new VisionCallback();
+	// Around the typical observer distance, so a query touches 2x2 to 3x3 cells
+	private static final float CELL_SIZE = 5.0f;
+	private static final float MOVE_THRESHOLD = 0.1f;
+	private static final int MAX_AGE = 10;
+	private static final int RAYCAST_BUDGET = 32;
+	
+	private ObjectMap<Entity, ObjectMap<Entity, Sight>> vision = new ObjectMap<Entity, ObjectMap<Entity, Sight>>();
+	private Queue<Sight> pending = new Queue<Sight>();
+	private Pool<Sight> sightPool = new Pool<Sight>() {
+		@Override
+		protected Sight newObject() {
+			return new Sight();
+		}
+	};
+	private SpatialHash<Entity> grid = new SpatialHash<Entity>(CELL_SIZE);
+	private Array<Entity> candidates = new Array<Entity>();
+	private ObservableListener observableListener = new ObservableListener();
+	private OccluderListener occluderListener = new OccluderListener();
+	private OccluderGridListener occluderGridListener = new OccluderGridListener();
+	private Array<Entity> occluders = new Array<Entity>();
+	private OccluderGrid occluderGrid;
+	// World space segments of the dynamic occluders and their bounds
+	private float[] segments = new float[64];
+	private int segmentsSize;
+	private float minX, minY, maxX, maxY;
 	private Vector2 toObservable = new Vector2();
 	private Vector2 tmp1 = new Vector2();
 	private Vector2 tmp2 = new Vector2();
@@ -35,48 +86,119 @@ public class VisionSystem extends IteratingSystem
 	);
 	
 	private ImmutableArray<Entity> observables;
-	private World world;
+	private int step;
+	private int raycasts;
 	
-	public VisionSystem(World world) {
+	public VisionSystem() {
 		super(Family.all(ObserverComponent.class).get());
 		
 		logger.info("initialize");
-		this.world = world;
 	}
 	
 	@Override
 	public void addedToEngine(Engine engine) {
 		super.addedToEngine(engine);
-		observables = engine.getEntitiesFor(
-			Family.all(ObservableComponent.class).get()
-		);
+		Family observableFamily = Family.all(ObservableComponent.class).get();
+		observables = engine.getEntitiesFor(observableFamily);
 		engine.addEntityListener(getFamily(), this);
+		engine.addEntityListener(observableFamily, observableListener);
+		engine.addEntityListener(Family.all(OccluderComponent.class).get(), occluderListener);
+		engine.addEntityListener(
+			Family.all(RootComponent.class, OccluderGridComponent.class).get(),
+			occluderGridListener
+		);
 	}
 	
 	@Override
 	public void removedFromEngine(Engine engine) {
 		super.removedFromEngine(engine);
 		engine.removeEntityListener(this);
+		engine.removeEntityListener(observableListener);
+		engine.removeEntityListener(occluderListener);
+		engine.removeEntityListener(occluderGridListener);
+		grid.clear();
+		occluders.clear();
+		occluderGrid = null;
+		
+		while (pending.size > 0) {
+			Sight sight = pending.removeFirst();
+			sight.queued = false;
+			
+			if (sight.discarded) {
+				sightPool.free(sight);
+			}
+		}
+		
+		// Observers keep their map, sights are worked out again once added back
+		for (ObjectMap<Entity, Sight> sights : vision.values()) {
+			for (Sight sight : sights.values()) {
+				sightPool.free(sight);
+			}
+			
+			sights.clear();
+		}
 	}
 	
 	@Override
 	public void entityAdded(Entity entity) {
-		vision.put(entity, new ObjectSet<Entity>());
+		vision.put(entity, new ObjectMap<Entity, Sight>());
 	}
 
 	@Override
 	public void entityRemoved(Entity entity) {
-		vision.remove(entity);
+		ObjectMap<Entity, Sight> sights = vision.remove(entity);
+		
+		if (sights != null) {
+			for (Sight sight : sights.values()) {
+				discard(sight);
+			}
+		}
 	}
 	
+	/**
+	 * Last known result, which may be up to getStaleness() steps old.
+	 */
 	public boolean canSee(Entity observer, Entity observable) {
-		ObjectSet<Entity> targets = vision.get(observer);
+		Sight sight = getSight(observer, observable);
+		return sight != null && sight.visible;
+	}
+	
+	/**
+	 * Same as canSee(observer, observable) but reports false when the result
+	 * is older than maxStaleness steps.
+	 */
+	public boolean canSee(Entity observer, Entity observable, int maxStaleness) {
+		Sight sight = getSight(observer, observable);
+		return sight != null && sight.visible && step - sight.step <= maxStaleness;
+	}
+	
+	/**
+	 * Steps since the pair was last raycast, -1 when it is not being tracked
+	 * or has not been cast yet.
+	 */
+	public int getStaleness(Entity observer, Entity observable) {
+		Sight sight = getSight(observer, observable);
 		
-		if (targets == null) {
-			return false;
+		if (sight == null || sight.step < 0) {
+			return -1;
 		}
 		
-		return targets.contains(observable);
+		return step - sight.step;
+	}
+	
+	/**
+	 * Raycasts run by the last update.
+	 */
+	public int getRaycasts() {
+		return raycasts;
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		++step;
+		updateGrid();
+		super.update(deltaTime);
+		raycastPending();
 	}
 
 	@Override
@@ -84,19 +206,106 @@ public class VisionSystem extends IteratingSystem
 		updateVision(observer);
 	}
 	
-	private void updateVision(Entity observer) {
-		for (Entity observable : observables) {
-			updateVision(observer, observable);
+	private Sight getSight(Entity observer, Entity observable) {
+		ObjectMap<Entity, Sight> sights = vision.get(observer);
+		
+		if (sights == null) {
+			return null;
+		}
+		
+		return sights.get(observable);
+	}
+	
+	private void updateGrid() {
+		for (Entity entity : observables) {
+			ObservableComponent observable = Mappers.observable.get(entity);
+			grid.update(entity, observable.position.x, observable.position.y);
 		}
 	}
-
-	private void updateVision(Entity observer, Entity observable) {
-		if (!inFov(observer, observable)) {
-			removeFromVision(observer, observable);
-			return;
+	
+	private void updateVision(Entity entity) {
+		ObserverComponent observer = Mappers.observer.get(entity);
+		ObjectMap<Entity, Sight> sights = vision.get(entity);
+		
+		// Whatever is outside the query square is out of range
+		Entries<Entity, Sight> entries = sights.entries();
+		
+		while (entries.hasNext()) {
+			Entry<Entity, Sight> entry = entries.next();
+			
+			if (inFov(entity, entry.key)) {
+				enqueue(entry.value);
+			}
+			else {
+				discard(entry.value);
+				entries.remove();
+			}
 		}
 		
-		raycast(observer, observable);
+		candidates.clear();
+		grid.query(
+			observer.position.x - observer.distance,
+			observer.position.y - observer.distance,
+			observer.position.x + observer.distance,
+			observer.position.y + observer.distance,
+			candidates
+		);
+		
+		// Tracked pairs were just tested above, only new ones are left
+		for (int i = 0; i < candidates.size; ++i) {
+			Entity observable = candidates.get(i);
+			
+			if (sights.containsKey(observable) || !inFov(entity, observable)) {
+				continue;
+			}
+			
+			Sight sight = sightPool.obtain();
+			sight.observer = entity;
+			sight.observable = observable;
+			sights.put(observable, sight);
+			enqueue(sight);
+		}
+	}
+	
+	private void enqueue(Sight sight) {
+		if (!sight.queued && isOutdated(sight)) {
+			sight.queued = true;
+			pending.addLast(sight);
+		}
+	}
+	
+	private boolean isOutdated(Sight sight) {
+		if (sight.step < 0 || step - sight.step >= MAX_AGE) {
+			return true;
+		}
+		
+		ObserverComponent observer = Mappers.observer.get(sight.observer);
+		ObservableComponent observable = Mappers.observable.get(sight.observable);
+		float threshold2 = MOVE_THRESHOLD * MOVE_THRESHOLD;
+		
+		return observer.position.dst2(sight.observerX, sight.observerY) > threshold2 ||
+			   observable.position.dst2(sight.observableX, sight.observableY) > threshold2;
+	}
+	
+	private void raycastPending() {
+		raycasts = 0;
+		
+		if (pending.size == 0) { return; }
+		
+		placeOccluders();
+		
+		while (raycasts < RAYCAST_BUDGET && pending.size > 0) {
+			Sight sight = pending.removeFirst();
+			sight.queued = false;
+			
+			if (sight.discarded) {
+				sightPool.free(sight);
+				continue;
+			}
+			
+			raycast(sight);
+			++raycasts;
+		}
 	}
 	
 	private boolean inFov(Entity entity, Entity target) {
@@ -125,75 +334,159 @@ public class VisionSystem extends IteratingSystem
 		return true;
 	}
 	
-	private void raycast(Entity entity, Entity target) {
-		ObserverComponent observer = Mappers.observer.get(entity);
-		ObservableComponent observable = Mappers.observable.get(target);
+	private void raycast(Sight sight) {
+		ObserverComponent observer = Mappers.observer.get(sight.observer);
+		ObservableComponent observable = Mappers.observable.get(sight.observable);
+		boolean visible = !isBlocked(
+			observer.position.x,
+			observer.position.y,
+			observable.position.x,
+			observable.position.y
+		);
 		
-		callback.prepare(entity, target);
+		sight.step = step;
+		sight.observerX = observer.position.x;
+		sight.observerY = observer.position.y;
+		sight.observableX = observable.position.x;
+		sight.observableY = observable.position.y;
 		
-		world.rayCast(
-			callback,
-			observer.position,
-			observable.position
-		);
+		if (sight.visible != visible) {
+			sight.visible = !sight.visible;
+			logger.info(sight.visible ? "Can now see" : "Can't see anymore");
+		}
+	}
+	
+	private boolean isBlocked(float x1, float y1, float x2, float y2) {
+		if (occluderGrid != null && occluderGrid.intersects(x1, y1, x2, y2)) {
+			return true;
+		}
 		
-		if (callback.canSee()) {
-			addToVision(entity, target);
+		if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX ||
+			Math.max(y1, y2) < minY || Math.min(y1, y2) > maxY) {
+			return false;
 		}
-		else {
-			removeFromVision(entity, target);
+		
+		for (int i = 0; i < segmentsSize; i += 4) {
+			if (OccluderGrid.intersects(x1, y1, x2, y2,
+										segments[i], segments[i + 1],
+										segments[i + 2], segments[i + 3])) {
+				return true;
+			}
 		}
+		
+		return false;
 	}
 	
-	private void addToVision(Entity observer, Entity observable) {
-		if (vision.get(observer).add(observable)) {
-			logger.info("Can now see");
+	// Dynamic occluders only move with their transforms, place them once per update
+	private void placeOccluders() {
+		segmentsSize = 0;
+		minX = minY = Float.MAX_VALUE;
+		maxX = maxY = -Float.MAX_VALUE;
+		
+		for (int i = 0; i < occluders.size; ++i) {
+			Entity entity = occluders.get(i);
+			float[] outline = Mappers.occluder.get(entity).outline;
+			TransformComponent transform = Mappers.transform.get(entity);
+			float cos = MathUtils.cosDeg(transform.angle);
+			float sin = MathUtils.sinDeg(transform.angle);
+			
+			if (segmentsSize + outline.length > segments.length) {
+				segments = Arrays.copyOf(segments, Math.max(segments.length * 2, segmentsSize + outline.length));
+			}
+			
+			for (int j = 0; j < outline.length; j += 2) {
+				float x = transform.position.x + outline[j] * cos - outline[j + 1] * sin;
+				float y = transform.position.y + outline[j] * sin + outline[j + 1] * cos;
+				
+				segments[segmentsSize++] = x;
+				segments[segmentsSize++] = y;
+				minX = Math.min(minX, x);
+				minY = Math.min(minY, y);
+				maxX = Math.max(maxX, x);
+				maxY = Math.max(maxY, y);
+			}
 		}
 	}
 	
-	private void removeFromVision(Entity observer, Entity observable) {
-		if (vision.get(observer).remove(observable)) {
+	private void discard(Sight sight) {
+		if (sight.visible) {
 			logger.info("Can't see anymore");
 		}
+		
+		// Still referenced by the queue when queued, freed once it pops
+		if (sight.queued) {
+			sight.discarded = true;
+		}
+		else {
+			sightPool.free(sight);
+		}
 	}
 	
-	private class VisionCallback implements RayCastCallback {
-		private Entity observer;
-		private Entity observable;
-		private float minFraction;
-		private float observableFraction;
+	private static class Sight implements Poolable {
+		Entity observer;
+		Entity observable;
+		boolean visible;
+		boolean queued;
+		boolean discarded;
+		int step = -1;
+		float observerX, observerY;
+		float observableX, observableY;
 		
-		public void prepare(Entity observer, Entity observable) {
-			this.observer = observer;
-			this.observable = observable;
-			this.minFraction = Float.MAX_VALUE;
-			this.observableFraction = Float.MAX_VALUE;
+		@Override
+		public void reset() {
+			observer = null;
+			observable = null;
+			visible = false;
+			queued = false;
+			discarded = false;
+			step = -1;
 		}
-		
-		public boolean canSee() {
-			return observableFraction < 1.0f &&
-				   observableFraction <= minFraction;
+	}
+	
+	private class ObservableListener implements EntityListener {
+		@Override
+		public void entityAdded(Entity entity) {
+			ObservableComponent observable = Mappers.observable.get(entity);
+			grid.update(entity, observable.position.x, observable.position.y);
 		}
-		
+
 		@Override
-		public float reportRayFixture(Fixture fixture,
-									  Vector2 point,
-									  Vector2 normal,
-									  float fraction) {
+		public void entityRemoved(Entity entity) {
+			grid.remove(entity);
 			
-			Object data = fixture.getBody().getUserData();
-			
-			if (data == observer) {
-				return -1;
+			for (ObjectMap<Entity, Sight> sights : vision.values()) {
+				Sight sight = sights.remove(entity);
+				
+				if (sight != null) {
+					discard(sight);
+				}
 			}
-			
-			minFraction = fraction;
-			
-			if (data == observable) {
-				observableFraction = fraction;
-				return fraction;
+		}
+	}
+	
+	private class OccluderListener implements EntityListener {
+		@Override
+		public void entityAdded(Entity entity) {
+			occluders.add(entity);
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+			occluders.removeValue(entity, true);
+		}
+	}
+	
+	private class OccluderGridListener implements EntityListener {
+		@Override
+		public void entityAdded(Entity entity) {
+			occluderGrid = Mappers.occluderGrid.get(entity).grid;
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+			if (Mappers.occluderGrid.get(entity).grid == occluderGrid) {
+				occluderGrid = null;
 			}
-			return 0;
 		}
 	}
 	
@@ -99,7 +99,7 @@ public class CCTvSystem extends IteratingSystem {
 			!cctv.playerReported) {
 			
 			logger.info("exposed");
-			alarmSfx.play();
+			Env.getGame().getMainThreadQueue().play(alarmSfx);
 			cctv.playerReported = true;
 			EventManager.fireEvent(
 				SceneManager.getCurrentScene(),
@@ -108,7 +108,7 @@ public class CCTvSystem extends IteratingSystem {
 		}
 		
 		if (!wasAlerted && cctv.alerted) {
-			foundSfx.play();
+			Env.getGame().getMainThreadQueue().play(foundSfx);
 		}
 	}
 	
@@ -11,6 +11,7 @@ import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.animation.Tags;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.components.AnimationControlComponent;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.ObserverComponent;
 import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
 import com.siondream.libgdxjam.ecs.components.SpineComponent;
@@ -34,12 +35,13 @@ public class GruntSystem extends IteratingSystem {
 	VisionSystem visionSystem;
 	
 	public GruntSystem(VisionSystem visionSystem, Tags tags) {
+		// Grunts far from the camera are paused, see ActivitySystem
 		super(Family.all(
 			GruntComponent.class,
 			SpineComponent.class,
 			AnimationControlComponent.class,
 			ObserverComponent.class
-		).get());
+		).exclude(DormantComponent.class).get());
 		
 		logger.info("initialize");
 		this.visionSystem = visionSystem;
@@ -30,7 +30,6 @@ public class PlayerFootsteps {
 	
 	public void play() {
 		int index = MathUtils.random(footstepsSfx.size - 1);
-		long soundId = footstepsSfx.get(index).play();
-		footstepsSfx.get(index).setVolume(soundId, 0.5f);
+		Env.getGame().getMainThreadQueue().play(footstepsSfx.get(index), 0.5f);
 	}
 }
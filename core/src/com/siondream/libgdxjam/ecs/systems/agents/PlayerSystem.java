@@ -12,7 +12,10 @@ import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.MassData;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
@@ -39,13 +42,21 @@ public class PlayerSystem extends IteratingSystem
 						  implements InputProcessor,
 						  			 EntityListener {
 
+	private static final String MAIN_FIXTURE = "main";
+	private static final String FEET_FIXTURE = "feet";
+	
 	private String standStance = Env.PHYSICS_FOLDER + "/player-stand.json";
 	private String crouchStance = Env.PHYSICS_FOLDER + "/player-crouch.json";
+	private Filter disabledFilter = new Filter();
 	PhysicsSystem physicsSystem;
 	Tags tags;
 	PlayerTags playerTags;
 	
 	private boolean isInputBlocked;
+	// Read by pollInput(), the simulation may not run on the GL thread
+	private boolean leftPressed;
+	private boolean rightPressed;
+	private boolean downPressed;
 	
 	private Sound jumpSfx;
 	private PlayerFootsteps footsteps;
@@ -99,6 +110,8 @@ public class PlayerSystem extends IteratingSystem
 			new PlayerLevelContactListener(footsteps)
 		);
 		
+		disabledFilter.maskBits = 0;
+		
 		AssetManager manager = Env.getGame().getAssetManager();
 		jumpSfx = manager.get(Env.SFX_FOLDER + "/jump.ogg");
 	}
@@ -117,7 +130,7 @@ public class PlayerSystem extends IteratingSystem
 	
 	@Override
 	public void entityAdded(Entity entity) {
-		setStance(entity, standStance);
+		createBody(entity);
 		
 		PlayerAnimationListener listener = new PlayerAnimationListener();
 		Mappers.spine.get(entity).state.addListener(listener);
@@ -137,6 +150,16 @@ public class PlayerSystem extends IteratingSystem
 	public void setBlockInput(boolean blockInput) {
 		this.isInputBlocked = blockInput;
 	}
+	
+	/**
+	 * Reads the keys the next update uses. GL thread only, before the
+	 * simulation starts.
+	 */
+	public void pollInput() {
+		leftPressed = Gdx.input.isKeyPressed(Keys.LEFT);
+		rightPressed = Gdx.input.isKeyPressed(Keys.RIGHT);
+		downPressed = Gdx.input.isKeyPressed(Keys.DOWN);
+	}
 
 	@Override
 	protected void processEntity(Entity entity, float deltaTime) {
@@ -201,9 +224,10 @@ public class PlayerSystem extends IteratingSystem
 		return false;
 	}
 	
-	private void setStance(Entity entity, String stance) {
-		logger.info("set stance: " + stance);
-		
+	/**
+	 * Builds a single body carrying the fixtures of both stances, standing.
+	 */
+	private void createBody(Entity entity) {
 		PhysicsComponent physics = Mappers.physics.get(entity);
 		PlayerComponent player = Mappers.player.get(entity);
 		AssetManager assetManager = Env.getGame().getAssetManager();
@@ -215,12 +239,36 @@ public class PlayerSystem extends IteratingSystem
 			world.destroyBody(physics.body);
 		}
 		
-		PhysicsData physicsData = assetManager.get(stance, PhysicsData.class);
-		physics.body = physicsData.createBody(world, entity);
+		PhysicsData stand = assetManager.get(standStance, PhysicsData.class);
+		PhysicsData crouch = assetManager.get(crouchStance, PhysicsData.class);
+		Fixture[] fixtures = new Fixture[stand.getFixtureCount()];
+		physics.body = stand.createBody(world, entity, 0.0f, 0.0f, fixtures);
 		
-		Array<Fixture> fixtures = physics.body.getFixtureList();
-		player.fixture = fixtures.get(physicsData.getFixtureIdx("main"));
-		player.feetSensor = fixtures.get(physicsData.getFixtureIdx("feet"));
+		int[] indices = stand.getFixtureIndices(MAIN_FIXTURE, FEET_FIXTURE);
+		player.fixture = fixtures[indices[0]];
+		player.feetSensor = fixtures[indices[1]];
+		// Filters of the loaded stance data, never modified
+		player.filter = stand.getFixtureDefs().get(indices[0]).filter;
+		
+		// Computed from the standing fixtures' densities, which the jump and
+		// move forces are tuned for. Adding fixtures recomputes it, so copy it
+		MassData standMass = new MassData();
+		MassData mass = physics.body.getMassData();
+		standMass.mass = mass.mass;
+		standMass.center.set(mass.center);
+		standMass.I = mass.I;
+		
+		indices = crouch.getFixtureIndices(MAIN_FIXTURE, FEET_FIXTURE);
+		Array<FixtureDef> crouchDefs = crouch.getFixtureDefs();
+		player.otherFixture = physics.body.createFixture(crouchDefs.get(indices[0]));
+		player.otherFeetSensor = physics.body.createFixture(crouchDefs.get(indices[1]));
+		player.otherFilter = crouchDefs.get(indices[0]).filter;
+		player.otherFixture.setFilterData(disabledFilter);
+		player.feetContacts = 0;
+		player.otherFeetContacts = 0;
+		
+		// The crouching fixtures must not change it
+		physics.body.setMassData(standMass);
 		
 		NodeComponent node = Mappers.node.get(entity);
 		NodeUtils.computeWorld(entity);
@@ -228,6 +276,36 @@ public class PlayerSystem extends IteratingSystem
 		physics.body.setTransform(node.position, node.angle);
 	}
 	
+	/**
+	 * Swaps the main fixture and feet sensor in use with the other stance's.
+	 * The body, its velocity and the feet contact counts are kept.
+	 */
+	private void switchStance(Entity entity) {
+		PlayerComponent player = Mappers.player.get(entity);
+		
+		logger.info("switch stance, crouching: " + player.crouching);
+		
+		Fixture fixture = player.fixture;
+		Fixture feetSensor = player.feetSensor;
+		Filter filter = player.filter;
+		int feetContacts = player.feetContacts;
+		
+		player.fixture = player.otherFixture;
+		player.feetSensor = player.otherFeetSensor;
+		player.filter = player.otherFilter;
+		player.feetContacts = player.otherFeetContacts;
+		
+		player.otherFixture = fixture;
+		player.otherFeetSensor = feetSensor;
+		player.otherFilter = filter;
+		player.otherFeetContacts = feetContacts;
+		
+		player.fixture.setFriction(player.otherFixture.getFriction());
+		player.fixture.setFilterData(player.filter);
+		player.otherFixture.setFilterData(disabledFilter);
+		player.grounded = player.feetContacts > 0;
+	}
+	
 	private void updateStance(Entity entity) {
 		PlayerComponent player = Mappers.player.get(entity);
 		
@@ -235,13 +313,10 @@ public class PlayerSystem extends IteratingSystem
 		
 		player.crouching = player.grounded &&
 						   !isInputBlocked && 
-						   Gdx.input.isKeyPressed(Keys.DOWN);
+						   downPressed;
 		
-		if (!wasCrouching && player.crouching) {
-			setStance(entity, crouchStance);
-		}
-		else if (wasCrouching && !player.crouching) {
-			setStance(entity, standStance);
+		if (wasCrouching != player.crouching) {
+			switchStance(entity);
 		}
 		
 		player.currMaxVelX = 0.0f;
@@ -267,7 +342,7 @@ public class PlayerSystem extends IteratingSystem
 		player.wantsToMove = false;
 		
 		// Horizontal movement
-		if (!isInputBlocked && Gdx.input.isKeyPressed(Keys.LEFT)) {
+		if (!isInputBlocked && leftPressed) {
 			if (absVelX < player.maxVelocityX) {
 				physics.body.applyLinearImpulse(
 					-player.horizontalImpulse, 0.0f,
@@ -282,7 +357,7 @@ public class PlayerSystem extends IteratingSystem
 				physics.body.setLinearVelocity(0.0f, velocity.y);
 			}
 		}
-		else if (!isInputBlocked && Gdx.input.isKeyPressed(Keys.RIGHT)) {
+		else if (!isInputBlocked && rightPressed) {
 			if (absVelX < player.maxVelocityX) {
 				physics.body.applyLinearImpulse(
 					player.horizontalImpulse, 0.0f,
@@ -325,7 +400,7 @@ public class PlayerSystem extends IteratingSystem
 				true
 			);
 			
-			jumpSfx.play();
+			Env.getGame().getMainThreadQueue().play(jumpSfx);
 		}
 	}
 	
@@ -2,16 +2,17 @@ package com.siondream.libgdxjam.ecs.systems.ai;
 
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.esotericsoftware.spine.Bone;
@@ -21,6 +22,8 @@ import com.esotericsoftware.spine.AnimationState.AnimationStateListener;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.NodeUtils;
+import com.siondream.libgdxjam.ecs.components.BulletComponent;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
 import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
 import com.siondream.libgdxjam.ecs.components.SizeComponent;
@@ -31,12 +34,27 @@ import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
 import com.siondream.libgdxjam.ecs.components.ai.AttackComponent;
 import com.siondream.libgdxjam.ecs.components.ai.PatrolComponent;
 import com.siondream.libgdxjam.physics.Categories;
+import com.siondream.libgdxjam.ecs.systems.LayerSystem;
+import com.siondream.libgdxjam.ecs.systems.PhysicsSystem;
+import com.siondream.libgdxjam.ecs.systems.SpineSystem;
 import com.siondream.libgdxjam.physics.CollisionHandler;
+import com.siondream.libgdxjam.physics.ContactAdapter;
+import com.siondream.libgdxjam.physics.ContactEvent;
 import com.siondream.libgdxjam.physics.listeners.PlayerBulletContactListener;
 import com.siondream.libgdxjam.utils.Direction;
 
+/**
+ * Bullets are pooled: entities and their bodies are created once, parked
+ * with an inactive body when they hit the player or time out, and reused
+ * for the next shot. Bullets removed from the engine, when the level is
+ * unloaded, leave the pool and it refills on demand.
+ */
 public class AttackSystem extends StateSystem
 {
+	private static final int BULLET_POOL_SIZE = 8;
+	private static final float BULLET_LIFETIME = 3.0f;
+	private static final float BULLET_SPEED = 10.0f;
+	
 	private ObjectMap<Entity, AnimationStateListener> listeners = new ObjectMap<Entity, AnimationStateListener>();
 	private Logger logger = new Logger(
 		AttackSystem.class.getSimpleName(),
@@ -45,6 +63,21 @@ public class AttackSystem extends StateSystem
 	private World world;
 	private Categories categories;
 	private CollisionHandler handler;
+	private PlayerBulletContactListener bulletListener;
+	private BulletHitContactListener bulletHitListener = new BulletHitContactListener();
+	private Array<Entity> freeBullets = new Array<Entity>();
+	private Array<Entity> activeBullets = new Array<Entity>();
+	private EntityListener bulletRemovalListener = new EntityListener() {
+		@Override
+		public void entityAdded(Entity entity) {}
+		
+		@Override
+		public void entityRemoved(Entity entity) {
+			Mappers.bullet.get(entity).active = false;
+			freeBullets.removeValue(entity, true);
+			activeBullets.removeValue(entity, true);
+		}
+	};
 	private Sound laserSfx;
 	
 	public AttackSystem(World world,
@@ -53,7 +86,7 @@ public class AttackSystem extends StateSystem
 		super(Family.all(
 			AttackComponent.class,
 			SpineComponent.class
-		).get());
+		).exclude(DormantComponent.class).get());
 		
 		logger.info("initialize");
 		this.world = world;
@@ -68,11 +101,53 @@ public class AttackSystem extends StateSystem
 	public void addedToEngine(Engine engine) {
 		super.addedToEngine(engine);
 		
+		bulletListener = new PlayerBulletContactListener(getEngine());
+		handler.add(
+			categories.getBits("player"),
+			categories.getBits("bullet"),
+			bulletListener
+		);
 		handler.add(
 			categories.getBits("player"),
 			categories.getBits("bullet"),
-			new PlayerBulletContactListener(getEngine())
+			bulletHitListener
 		);
+		
+		engine.addEntityListener(
+			Family.all(BulletComponent.class).get(),
+			bulletRemovalListener
+		);
+		
+		for (int i = 0; i < BULLET_POOL_SIZE; ++i) {
+			freeBullets.add(createBullet());
+		}
+	}
+	
+	@Override
+	public void update(float deltaTime) {
+		super.update(deltaTime);
+		bulletListener.update(deltaTime);
+		
+		for (int i = activeBullets.size - 1; i >= 0; --i) {
+			Entity bullet = activeBullets.get(i);
+			BulletComponent bulletComponent = Mappers.bullet.get(bullet);
+			
+			bulletComponent.time -= deltaTime;
+			
+			if (bulletComponent.time <= 0.0f) {
+				releaseBullet(bullet);
+			}
+		}
+	}
+	
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		handler.remove(bulletListener);
+		handler.remove(bulletHitListener);
+		engine.removeEntityListener(bulletRemovalListener);
+		freeBullets.clear();
+		activeBullets.clear();
 	}
 	
 	@Override
@@ -91,22 +166,12 @@ public class AttackSystem extends StateSystem
 		listeners.remove(entity);
 	}
 	
-	private void spawnBullet(Entity entity) {
-		Entity bullet = new Entity();
-	
-		TextureComponent texture = new TextureComponent();
-		PhysicsComponent physics = new PhysicsComponent();
-		NodeComponent node = new NodeComponent();
-		SizeComponent size = new SizeComponent();
-		TransformComponent transform = new TransformComponent();
-		ZIndexComponent index = new ZIndexComponent();
-		
-		bullet.add(texture);
-		bullet.add(physics);
-		bullet.add(node);
-		bullet.add(size);
-		bullet.add(transform);
-		bullet.add(index);
+	private void fireBullet(Entity entity) {
+		Entity bullet = freeBullets.size > 0 ? freeBullets.pop() : createBullet();
+		BulletComponent bulletComponent = Mappers.bullet.get(bullet);
+		NodeComponent node = Mappers.node.get(bullet);
+		TransformComponent transform = Mappers.transform.get(bullet);
+		PhysicsComponent physics = Mappers.physics.get(bullet);
 		
 		Entity parent = NodeUtils.getParent(entity);
 		node.parent = parent;
@@ -116,12 +181,89 @@ public class AttackSystem extends StateSystem
 		}
 		
 		ZIndexComponent parentIndex = Mappers.index.get(entity);
+		ZIndexComponent index = Mappers.index.get(bullet);
 		index.index = parentIndex.index + 1;
 		index.layer = parentIndex.layer;
 		
-		Bone bone = Mappers.spine.get(entity).skeleton.findBone("bullet");
+		// Off screen grunts still shoot, their skeleton may not be posed
+		SpineComponent spine = Mappers.spine.get(entity);
+		SpineSystem.pose(spine);
+		Bone bone = spine.skeleton.findBone("bullet");
 		transform.position.set(Mappers.transform.get(entity).position);
 		transform.position.add(bone.getWorldX(), bone.getWorldY());
+		
+		Direction direction = Mappers.grunt.get(entity).direction;
+
+		logger.info("grunt is at: " + Mappers.physics.get(entity).body.getPosition());
+		logger.info("bone offset: " + transform.position);
+		
+		bullet.add(bulletComponent.texture);
+		bulletComponent.time = BULLET_LIFETIME;
+		bulletComponent.active = true;
+		activeBullets.add(bullet);
+		
+		if (parent != null) {
+			NodeUtils.computeWorld(bullet);
+			
+			LayerSystem layerSystem = getEngine().getSystem(LayerSystem.class);
+			
+			if (layerSystem != null) {
+				layerSystem.attached(bullet);
+			}
+		}
+		
+		physics.body.setTransform(node.position, 0.0f);
+		physics.body.setLinearVelocity(BULLET_SPEED * direction.value(), 0.0f);
+		physics.body.setActive(true);
+		physics.body.setAwake(true);
+		
+		// Fired after this step's physics read, it would be drawn where it was parked
+		getEngine().getSystem(PhysicsSystem.class).teleport(bullet);
+	}
+	
+	private void releaseBullet(Entity bullet) {
+		BulletComponent bulletComponent = Mappers.bullet.get(bullet);
+		
+		if (!bulletComponent.active) { return; }
+		
+		bulletComponent.active = false;
+		activeBullets.removeValue(bullet, true);
+		freeBullets.add(bullet);
+		
+		Mappers.physics.get(bullet).body.setActive(false);
+		bullet.remove(TextureComponent.class);
+		
+		NodeComponent node = Mappers.node.get(bullet);
+		
+		if (node.parent != null) {
+			Mappers.node.get(node.parent).children.removeValue(bullet, true);
+			node.parent = null;
+		}
+	}
+	
+	/**
+	 * Builds a parked bullet: in the engine, out of the scene tree, with an
+	 * inactive body and no texture attached.
+	 */
+	private Entity createBullet() {
+		Entity bullet = new Entity();
+	
+		BulletComponent bulletComponent = new BulletComponent();
+		TextureComponent texture = new TextureComponent();
+		PhysicsComponent physics = new PhysicsComponent();
+		NodeComponent node = new NodeComponent();
+		SizeComponent size = new SizeComponent();
+		TransformComponent transform = new TransformComponent();
+		ZIndexComponent index = new ZIndexComponent();
+		
+		bulletComponent.texture = texture;
+		
+		bullet.add(bulletComponent);
+		bullet.add(physics);
+		bullet.add(node);
+		bullet.add(size);
+		bullet.add(transform);
+		bullet.add(index);
 
 		AssetManager manager = Env.getGame().getAssetManager();
 		TextureAtlas atlas = manager.get(
@@ -133,18 +275,12 @@ public class AttackSystem extends StateSystem
 		size.width = texture.region.getRegionWidth() * Env.UI_TO_WORLD;
 		size.height = texture.region.getRegionHeight() * Env.UI_TO_WORLD;
 		
-		Direction direction = Mappers.grunt.get(entity).direction;
-
-		logger.info("grunt is at: " + Mappers.physics.get(entity).body.getPosition());
-		logger.info("bone offset: " + transform.position);
-		
 		BodyDef bDef = new BodyDef();
 		bDef.type = BodyType.DynamicBody;
 		bDef.fixedRotation = true;
 		bDef.gravityScale = 0.0f;
 		bDef.bullet = true;
-		bDef.angle = MathUtils.degreesToRadians * node.angle;
-		bDef.linearVelocity.set(10.0f * direction.value(), 0.0f);
+		bDef.active = false;
 		
 		physics.body = world.createBody(bDef);
 		physics.body.setUserData(bullet);
@@ -163,6 +299,19 @@ public class AttackSystem extends StateSystem
 		shape.dispose();
 		
 		getEngine().addEntity(bullet);
+		
+		return bullet;
+	}
+	
+	private class BulletHitContactListener extends ContactAdapter {
+		@Override
+		public void beginContact(ContactEvent event) {
+			Entity bullet = getEntity(event, BulletComponent.class);
+			
+			if (bullet != null) {
+				releaseBullet(bullet);
+			}
+		}
 	}
 	
 	private class ShootAnimationListener extends AnimationStateAdapter {
@@ -175,8 +324,8 @@ public class AttackSystem extends StateSystem
 		@Override
 		public void event (int trackIndex, Event event) {
 			if (event.getData().getName().equals("shoot")) {
-				spawnBullet(entity);
-				laserSfx.play();
+				fireBullet(entity);
+				Env.getGame().getMainThreadQueue().play(laserSfx);
 			}
 		}
 		
@@ -2,6 +2,7 @@ package com.siondream.libgdxjam.ecs.systems.ai;
 
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.Family;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.ai.IdleComponent;
 
 public class IdleSystem extends StateSystem
@@ -9,7 +10,7 @@ public class IdleSystem extends StateSystem
 	
 	public IdleSystem()
 	{
-		super(Family.all(IdleComponent.class).get());
+		super(Family.all(IdleComponent.class).exclude(DormantComponent.class).get());
 	}
 	
 	@Override
@@ -6,6 +6,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
 import com.siondream.libgdxjam.ecs.components.ai.IdleComponent;
 import com.siondream.libgdxjam.ecs.components.ai.PatrolComponent;
@@ -15,7 +16,7 @@ import com.siondream.libgdxjam.utils.Direction;
 public class PatrolSystem extends StateSystem
 {
 	public PatrolSystem() {
-		super(Family.all(PatrolComponent.class).get());
+		super(Family.all(PatrolComponent.class).exclude(DormantComponent.class).get());
 	}
 
 	@Override
@@ -15,6 +15,7 @@ import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.animation.Tags;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.NodeUtils;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.SpineComponent;
 import com.siondream.libgdxjam.ecs.components.agents.PlayerComponent;
 import com.siondream.libgdxjam.ecs.components.ai.PatrolComponent;
@@ -39,7 +40,7 @@ public class SleepSystem extends StateSystem {
 	private long snoreId = 0l;
 	
 	public SleepSystem(Tags tags) {
-		super(Family.all(SleepComponent.class, SpineComponent.class).get());
+		super(Family.all(SleepComponent.class, SpineComponent.class).exclude(DormantComponent.class).get());
 		
 		logger.info("initialize");
 		
@@ -60,12 +61,18 @@ public class SleepSystem extends StateSystem {
 
 	@Override
 	public void entityAdded(final Entity entity) {
+		// Woken up by ActivitySystem while waking up, see entityRemoved()
+		if (listeners.containsKey(entity)) { return; }
+		
 		Mappers.animControl.get(entity).set(sleep);
 	}
 
 	@Override
 	public void entityRemoved(Entity entity) {
-		Mappers.spine.get(entity).state.removeListener(listeners.get(entity));
+		// Put to rest by ActivitySystem, the wake up carries on afterwards
+		if (Mappers.dormant.has(entity)) { return; }
+		
+		Mappers.spine.get(entity).state.removeListener(listeners.remove(entity));
 	}
 
 	@Override
@@ -107,7 +114,7 @@ public class SleepSystem extends StateSystem {
 	private void wakeup(Entity entity, Entity player) {
 		logger.info("grunt " + entity + " woke up");
 		
-		wakeupSfx.play();
+		Env.getGame().getMainThreadQueue().play(wakeupSfx);
 		
 		AnimationStateListener listener = new WakeUpListener(entity, player);
 		listeners.put(entity, listener);
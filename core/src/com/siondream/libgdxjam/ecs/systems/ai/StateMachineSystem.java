@@ -6,6 +6,7 @@ import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.gdx.utils.Logger;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.DormantComponent;
 import com.siondream.libgdxjam.ecs.components.ai.StateComponent;
 import com.siondream.libgdxjam.ecs.components.ai.StateMachineComponent;
 
@@ -17,7 +18,8 @@ public class StateMachineSystem extends IteratingSystem
 	);
 	
 	public StateMachineSystem() {
-		super(Family.all(StateMachineComponent.class).get());
+		// Transitions of entities far from the camera wait, see ActivitySystem
+		super(Family.all(StateMachineComponent.class).exclude(DormantComponent.class).get());
 	}
 
 	@Override
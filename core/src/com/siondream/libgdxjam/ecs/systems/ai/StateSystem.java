@@ -38,6 +38,8 @@ public abstract class StateSystem extends IteratingSystem implements EntityListe
 		engine.removeEntityListener(this);
 	}
 	
+	// State systems exclude DormantComponent, so ActivitySystem putting an
+	// entity to rest and waking it up exits and enters its state as well
 	@Override
 	public abstract void  entityAdded(Entity entity); // On enter action
 	
@@ -5,7 +5,9 @@ import box2dLight.Light;
 import box2dLight.PointLight;
 import box2dLight.RayHandler;
 
+import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.assets.AssetLoaderParameters;
@@ -31,6 +33,7 @@ import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.esotericsoftware.spine.AnimationState;
 import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
@@ -38,21 +41,27 @@ import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonDataLoader.SkeletonDataLoaderParameter;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.NodeUtils;
 import com.siondream.libgdxjam.ecs.components.IDComponent;
 import com.siondream.libgdxjam.ecs.components.LayerComponent;
 import com.siondream.libgdxjam.ecs.components.LightComponent;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderComponent;
+import com.siondream.libgdxjam.ecs.components.OccluderGridComponent;
 import com.siondream.libgdxjam.ecs.components.ParticleComponent;
 import com.siondream.libgdxjam.ecs.components.PhysicsComponent;
 import com.siondream.libgdxjam.ecs.components.RootComponent;
 import com.siondream.libgdxjam.ecs.components.SizeComponent;
 import com.siondream.libgdxjam.ecs.components.SpineComponent;
+import com.siondream.libgdxjam.ecs.components.StaticGeometryComponent;
 import com.siondream.libgdxjam.ecs.components.TextureComponent;
 import com.siondream.libgdxjam.ecs.components.TransformComponent;
 import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
 import com.siondream.libgdxjam.overlap.plugins.OverlapLoaderPlugin;
 import com.siondream.libgdxjam.physics.Categories;
 import com.siondream.libgdxjam.physics.Material;
+import com.siondream.libgdxjam.physics.OccluderGrid;
+import com.siondream.libgdxjam.rendering.StaticGeometry;
 
 public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, OverlapSceneLoader.Parameters> {
 	private static final String ASSETS_DIR = "overlap/assets/orig/";
@@ -62,6 +71,10 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 	private JsonReader reader = new JsonReader();
 	private Parameters parameters;
 	private TextureAtlas atlas;
+	// Entities loadPolygon() gave a body, candidates to occlude sight
+	private Array<Entity> polygons = new Array<Entity>();
+	// Spine animations of the same skeleton in a scene share their mixes
+	private ObjectMap<SkeletonData, AnimationStateData> stateDatas = new ObjectMap<SkeletonData, AnimationStateData>();
 	
 	private Logger logger = new Logger(
 		OverlapSceneLoader.class.getSimpleName(),
@@ -75,6 +88,28 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 	private static final ObjectMap<String, OverlapLoaderPlugin > pluginMapper =
 			new ObjectMap<String, OverlapLoaderPlugin >();
 	
+	// Images with nothing but these, under composites with nothing but the
+	// second set, have no physics, plugins nor animation and never move
+	private static final ObjectSet<Class<? extends Component>> staticImageComponents =
+			new ObjectSet<Class<? extends Component>>();
+	private static final ObjectSet<Class<? extends Component>> staticCompositeComponents =
+			new ObjectSet<Class<? extends Component>>();
+	
+	static {
+		staticImageComponents.add(NodeComponent.class);
+		staticImageComponents.add(TransformComponent.class);
+		staticImageComponents.add(TextureComponent.class);
+		staticImageComponents.add(SizeComponent.class);
+		staticImageComponents.add(ZIndexComponent.class);
+		staticImageComponents.add(IDComponent.class);
+		
+		staticCompositeComponents.add(NodeComponent.class);
+		staticCompositeComponents.add(TransformComponent.class);
+		staticCompositeComponents.add(ZIndexComponent.class);
+		staticCompositeComponents.add(IDComponent.class);
+		staticCompositeComponents.add(LayerComponent.class);
+	}
+	
 	// Cache to avoid creating a new array per physics component
 	private static final BodyType[] bodyTypesCache = BodyDef.BodyType.values();
 	// Cache to avoid creating new vectors in spine anims component
@@ -94,6 +129,7 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 		public World world;
 		public Categories categories;
 		public RayHandler rayHandler;
+		public boolean bakeStatic = true;
 	}
 
 	@Override
@@ -144,6 +180,13 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 		OverlapScene scene = new OverlapScene();
 		Entity rootEntity = loadRoot(scene, root.get("composite"));
 		
+		if (parameters.bakeStatic) {
+			bakeStaticImages(rootEntity);
+		}
+		
+		bakeOccluders(rootEntity);
+		stateDatas.clear();
+		
 		scene.setName(root.getString("sceneName", ""));
 		scene.setRoot(rootEntity);
 		
@@ -477,7 +520,7 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 		physicsComponent.body = body; 
 		
 		entity.add(physicsComponent);
-		
+		polygons.add(entity);
 	}
 	
 	private Entity loadLight(OverlapScene scene, JsonValue value) 
@@ -605,7 +648,13 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 		spine.skeleton = new Skeleton(skeletonData);
 		
 		// Load animation state data
-		AnimationStateData stateData = new AnimationStateData(skeletonData);
+		AnimationStateData stateData = stateDatas.get(skeletonData);
+		
+		if (stateData == null) {
+			stateData = new AnimationStateData(skeletonData);
+			stateDatas.put(skeletonData, stateData);
+		}
+		
 		spine.state = new AnimationState(stateData);
 		spine.skeleton.setSkin(skeletonData.getSkins().first());
 		spine.state.setAnimation(
@@ -662,6 +711,115 @@ public class OverlapSceneLoader extends AsynchronousAssetLoader<OverlapScene, Ov
 		transform.angle = value.getFloat("rotation", 0.0f);
 	}
 	
+	private void bakeStaticImages(Entity root) {
+		StaticGeometryComponent staticGeometry = new StaticGeometryComponent();
+		LayerComponent layers = Mappers.layer.get(root);
+		NodeComponent node = Mappers.node.get(root);
+		
+		for (int i = 0; i < node.children.size;) {
+			Entity child = node.children.get(i);
+			
+			if (bakeStaticImages(staticGeometry.geometry, child, getLayerIndex(layers, child))) {
+				node.children.removeIndex(i);
+			}
+			else {
+				++i;
+			}
+		}
+		
+		StaticGeometry geometry = staticGeometry.geometry;
+		
+		if (geometry.getQuads() == 0) { return; }
+		
+		root.add(staticGeometry);
+		logger.info("baked " + geometry.getQuads() + " static images into " + geometry.getChunks().size + " chunks");
+	}
+	
+	// Returns whether the entity was baked and has to leave the tree
+	private boolean bakeStaticImages(StaticGeometry geometry, Entity entity, int layer) {
+		NodeComponent node = Mappers.node.get(entity);
+		
+		if (hasOnly(entity, staticImageComponents) &&
+			node.children.size == 0 &&
+			Mappers.texture.get(entity).region != null) {
+			NodeUtils.computeWorld(entity);
+			geometry.add(
+				layer,
+				Mappers.texture.get(entity).region,
+				node.world,
+				Mappers.size.get(entity),
+				Mappers.transform.get(entity)
+			);
+			node.parent = null;
+			return true;
+		}
+		
+		if (!hasOnly(entity, staticCompositeComponents)) { return false; }
+		
+		for (int i = 0; i < node.children.size;) {
+			if (bakeStaticImages(geometry, node.children.get(i), layer)) {
+				node.children.removeIndex(i);
+			}
+			else {
+				++i;
+			}
+		}
+		
+		return false;
+	}
+	
+	// Runs once plugins are done, they decide what is a door or a box
+	private void bakeOccluders(Entity root) {
+		OccluderGridComponent occluders = new OccluderGridComponent();
+		int dynamic = 0;
+		
+		for (Entity entity : polygons) {
+			Body body = Mappers.physics.get(entity).body;
+			float[] outline = OccluderGrid.getOutline(body);
+			
+			if (outline.length == 0) { continue; }
+			
+			if (body.getType() == BodyType.StaticBody && !Mappers.door.has(entity)) {
+				// Same placement PhysicsSystem gives the body when it is added
+				NodeUtils.computeWorld(entity);
+				NodeComponent node = Mappers.node.get(entity);
+				occluders.grid.add(outline, node.position.x, node.position.y, node.angle);
+			}
+			else {
+				OccluderComponent occluder = new OccluderComponent();
+				occluder.outline = outline;
+				entity.add(occluder);
+				++dynamic;
+			}
+		}
+		
+		polygons.clear();
+		
+		if (occluders.grid.getSegments() == 0 && dynamic == 0) { return; }
+		
+		root.add(occluders);
+		logger.info("baked " + occluders.grid.getSegments() + " static occluder segments, " + dynamic + " dynamic occluders");
+	}
+	
+	private static boolean hasOnly(Entity entity, ObjectSet<Class<? extends Component>> types) {
+		ImmutableArray<Component> components = entity.getComponents();
+		
+		for (int i = 0; i < components.size(); ++i) {
+			if (!types.contains(components.get(i).getClass())) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static int getLayerIndex(LayerComponent layers, Entity entity) {
+		if (layers == null || !Mappers.index.has(entity)) { return 0; }
+		
+		int index = layers.names.indexOf(Mappers.index.get(entity).layer, false);
+		return Math.max(index, 0);
+	}
+	
 	private void loadLayers(Entity entity, JsonValue value) {
 		if (value == null || value.size == 0) { return; }
 		
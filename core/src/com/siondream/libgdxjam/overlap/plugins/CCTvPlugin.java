@@ -4,7 +4,6 @@ import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonData;
 import com.siondream.libgdxjam.Env;
@@ -45,14 +44,12 @@ public class CCTvPlugin implements OverlapLoaderPlugin
 		// Load spine animation
 		SkeletonData skeletonData = assetManager.get("spine/Beholder.json", SkeletonData.class);
 		spine.skeleton = new Skeleton(skeletonData);
-		AnimationStateData stateData = new AnimationStateData(skeletonData);
-		spine.state = new AnimationState(stateData);
+		control.data = assetManager.get("anims/cctv.json", AnimationControl.class);
+		spine.state = new AnimationState(control.data.getStateData());
 		
 		size.width = 0.5f;
 		size.height = 0.5f;
 		
-		control.data = assetManager.get("anims/cctv.json", AnimationControl.class);
-		
 		observer.fovAngle = 20.0f;
 		observer.distance = 4.5f;
 		
@@ -4,7 +4,6 @@ import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonData;
 import com.siondream.libgdxjam.Env;
@@ -61,20 +60,26 @@ public class GruntPlugin implements OverlapLoaderPlugin
 		// Load spine animation
 		SkeletonData skeletonData = assetManager.get("spine/Grunt.json", SkeletonData.class);
 		spine.skeleton = new Skeleton(skeletonData);
-		AnimationStateData stateData = new AnimationStateData(skeletonData);
-		spine.state = new AnimationState(stateData);
+		animControl.data = assetManager.get("anims/grunt.json", AnimationControl.class);
+		spine.state = new AnimationState(animControl.data.getStateData());
 		size.width = 2.0f;
 		size.height = 2.0f;
 		
-		animControl.data = assetManager.get("anims/grunt.json", AnimationControl.class);
-		
-		PhysicsData physicsData = assetManager.get(Env.PHYSICS_FOLDER + "/grunt-idle.json", PhysicsData.class);
-		physics.body = physicsData.createBody(physicsSystem.getWorld(), entity);
-
 		NodeComponent node = Mappers.node.get(entity);
 		NodeUtils.computeWorld(entity);
 		
-		physics.body.setTransform(node.position, node.angle);
+		PhysicsData physicsData = assetManager.get(Env.PHYSICS_FOLDER + "/grunt-idle.json", PhysicsData.class);
+		physics.body = physicsData.createBody(
+			physicsSystem.getWorld(),
+			entity,
+			node.position.x,
+			node.position.y,
+			null
+		);
+		
+		if (node.angle != 0.0f) {
+			physics.body.setTransform(node.position, node.angle);
+		}
 		grunt.center = Mappers.transform.get(entity).position.x;
 		
 		// Set grunt initial state
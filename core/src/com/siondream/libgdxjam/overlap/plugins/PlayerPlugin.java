@@ -4,7 +4,6 @@ import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonData;
 import com.siondream.libgdxjam.Env;
@@ -38,10 +37,8 @@ public class PlayerPlugin implements OverlapLoaderPlugin {
 		
 		SkeletonData skeletonData = assetManager.get("spine/Player.json", SkeletonData.class);
 		spine.skeleton = new Skeleton(skeletonData);
-		AnimationStateData stateData = new AnimationStateData(skeletonData);
-		spine.state = new AnimationState(stateData);
-		
 		animControl.data = assetManager.get("anims/player.json", AnimationControl.class);
+		spine.state = new AnimationState(animControl.data.getStateData());
 		
 		size.width = 0.5f;
 		size.height = 1.4f;
@@ -1,112 +1,285 @@
 package com.siondream.libgdxjam.physics;
 
+import java.util.Arrays;
+
+import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.physics.box2d.Contact;
 import com.badlogic.gdx.physics.box2d.ContactImpulse;
 import com.badlogic.gdx.physics.box2d.ContactListener;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.Manifold;
-import com.badlogic.gdx.utils.ObjectMap;
 
+/**
+ * Routes Box2D callbacks to the listeners registered for the categories of
+ * the two fixtures involved. Categories caps the game at 16 categories, so
+ * the table is a dense 16x16 matrix indexed by category bit, no boxing or
+ * hashing happens per callback. Fixtures with several category bits are
+ * routed by their lowest one.
+ *
+ * Several listeners can share a pair, they are called in registration order.
+ *
+ * Between beginStep() and endStep() begin and end contacts are only recorded
+ * into preallocated arrays. endStep() sorts them by category pair, keeping
+ * the order in which each pair saw them, and dispatches every pair as a
+ * batch, outside of the Box2D callbacks. Outside of a step, for instance
+ * when a body is destroyed, they are dispatched right away. preSolve and
+ * postSolve always run inside the step.
+ */
 public class CollisionHandler implements ContactListener {
-	private ObjectMap<Short, ObjectMap<Short, ContactListener>> listeners = new ObjectMap<Short, ObjectMap<Short, ContactListener>>();
+	private static final int CATEGORIES = 16;
+	private static final ContactAdapter[] NONE = new ContactAdapter[0];
+	
+	// listeners[a * CATEGORIES + b], for category bit positions a and b
+	private ContactAdapter[][] listeners = new ContactAdapter[CATEGORIES * CATEGORIES][];
+	// Categories paired with each category bit position, for the early out
+	private short[] pairs = new short[CATEGORIES];
+	
+	// Events recorded during the step, keys are pair slot << 32 | event index
+	private boolean deferring;
+	private int events;
+	private long[] eventKeys = new long[64];
+	private boolean[] eventBegins = new boolean[64];
+	private short[] eventCategoriesA = new short[64];
+	private short[] eventCategoriesB = new short[64];
+	private Fixture[] eventFixturesA = new Fixture[64];
+	private Fixture[] eventFixturesB = new Fixture[64];
+	private Entity[] eventEntitiesA = new Entity[64];
+	private Entity[] eventEntitiesB = new Entity[64];
+	private ContactEvent event = new ContactEvent();
 	
-	public void add(short categoryA, short categoryB, ContactListener listener) {
-		addInternal(categoryA, categoryB, listener);
-		addInternal(categoryB, categoryA, listener);
+	public CollisionHandler() {
+		for (int i = 0; i < listeners.length; ++i) {
+			listeners[i] = NONE;
+		}
 	}
 	
-	public void remove(ContactListener listener) {
-		for (ObjectMap<Short, ContactListener> listenerMap : listeners.values()) {
-			ObjectMap.Entries<Short, ContactListener> entries = listenerMap.entries();
-			
-			while (entries.hasNext()) {
-				ObjectMap.Entry<Short, ContactListener> entry = entries.next();
-				
-				if (entry.value == listener) {
-					entries.remove();
-				}
+	public void add(short categoryA, short categoryB, ContactAdapter listener) {
+		int a = getIndex(categoryA);
+		int b = getIndex(categoryB);
+		
+		if (a < 0 || b < 0) { return; }
+		
+		addInternal(a, b, listener);
+		
+		if (a != b) {
+			addInternal(b, a, listener);
+		}
+	}
+	
+	public void remove(ContactAdapter listener) {
+		for (int a = 0; a < CATEGORIES; ++a) {
+			for (int b = 0; b < CATEGORIES; ++b) {
+				removeInternal(a, b, listener);
 			}
 		}
 	}
 	
-	@Override
-	public void beginContact(Contact contact) {
-		Fixture fixtureA = contact.getFixtureA();
-		Fixture fixtureB = contact.getFixtureB();
+	/**
+	 * Starts recording begin and end contacts instead of dispatching them.
+	 */
+	public void beginStep() {
+		deferring = true;
+	}
+	
+	/**
+	 * Dispatches the contacts recorded since beginStep(), grouped by category
+	 * pair.
+	 */
+	public void endStep() {
+		deferring = false;
 		
-		ContactListener listener = get(
-			fixtureA.getFilterData().categoryBits,
-			fixtureB.getFilterData().categoryBits
-		);
+		if (events == 0) { return; }
+		
+		Arrays.sort(eventKeys, 0, events);
 		
-		if (listener != null) {
-			listener.beginContact(contact);
+		for (int i = 0; i < events; ++i) {
+			long key = eventKeys[i];
+			int index = (int)key;
+			
+			dispatch(listeners[(int)(key >>> 32)], index);
+			
+			eventFixturesA[index] = null;
+			eventFixturesB[index] = null;
+			eventEntitiesA[index] = null;
+			eventEntitiesB[index] = null;
 		}
+		
+		events = 0;
 	}
-
+	
+	@Override
+	public void beginContact(Contact contact) {
+		record(contact, true);
+	}
+	
 	@Override
 	public void endContact(Contact contact) {
-		Fixture fixtureA = contact.getFixtureA();
-		Fixture fixtureB = contact.getFixtureB();
-		
-		ContactListener listener = get(
-			fixtureA.getFilterData().categoryBits,
-			fixtureB.getFilterData().categoryBits
-		);
-		
-		if (listener != null) {
-			listener.endContact(contact);
-		}
+		record(contact, false);
 	}
-
+	
 	@Override
 	public void preSolve(Contact contact, Manifold oldManifold) {
-		Fixture fixtureA = contact.getFixtureA();
-		Fixture fixtureB = contact.getFixtureB();
-		
-		ContactListener listener = get(
-			fixtureA.getFilterData().categoryBits,
-			fixtureB.getFilterData().categoryBits
-		);
+		ContactAdapter[] pairListeners = get(contact);
 		
-		if (listener != null) {
-			listener.preSolve(contact, oldManifold);
+		for (int i = 0; i < pairListeners.length; ++i) {
+			pairListeners[i].preSolve(contact, oldManifold);
 		}
 	}
-
+	
 	@Override
 	public void postSolve(Contact contact, ContactImpulse impulse) {
+		ContactAdapter[] pairListeners = get(contact);
+		
+		for (int i = 0; i < pairListeners.length; ++i) {
+			pairListeners[i].postSolve(contact, impulse);
+		}
+	}
+	
+	private void record(Contact contact, boolean begin) {
 		Fixture fixtureA = contact.getFixtureA();
 		Fixture fixtureB = contact.getFixtureB();
+		short categoryA = fixtureA.getFilterData().categoryBits;
+		short categoryB = fixtureB.getFilterData().categoryBits;
+		int slot = getSlot(categoryA, categoryB);
 		
-		ContactListener listener = get(
-			fixtureA.getFilterData().categoryBits,
-			fixtureB.getFilterData().categoryBits
-		);
+		if (slot < 0) { return; }
 		
-		if (listener != null) {
-			listener.postSolve(contact, impulse);
+		if (events == eventKeys.length) {
+			grow();
+		}
+		
+		int index = events++;
+		
+		eventKeys[index] = ((long)slot << 32) | index;
+		eventBegins[index] = begin;
+		eventCategoriesA[index] = categoryA;
+		eventCategoriesB[index] = categoryB;
+		eventFixturesA[index] = fixtureA;
+		eventFixturesB[index] = fixtureB;
+		eventEntitiesA[index] = getEntity(fixtureA);
+		eventEntitiesB[index] = getEntity(fixtureB);
+		
+		if (!deferring) {
+			dispatch(listeners[slot], index);
+			eventFixturesA[index] = null;
+			eventFixturesB[index] = null;
+			eventEntitiesA[index] = null;
+			eventEntitiesB[index] = null;
+			--events;
 		}
 	}
 	
-	private void addInternal(short categoryA, short categoryB, ContactListener listener) {
-		ObjectMap<Short, ContactListener> listenerMap = listeners.get(categoryA);
+	private void dispatch(ContactAdapter[] pairListeners, int index) {
+		event.fixtureA = eventFixturesA[index];
+		event.fixtureB = eventFixturesB[index];
+		event.entityA = eventEntitiesA[index];
+		event.entityB = eventEntitiesB[index];
+		event.categoryA = eventCategoriesA[index];
+		event.categoryB = eventCategoriesB[index];
 		
-		if (listenerMap == null) {
-			listenerMap = new ObjectMap<Short, ContactListener>();
-			listeners.put(categoryA, listenerMap);
+		boolean begin = eventBegins[index];
+		
+		for (int i = 0; i < pairListeners.length; ++i) {
+			if (begin) {
+				pairListeners[i].beginContact(event);
+			}
+			else {
+				pairListeners[i].endContact(event);
+			}
+		}
+	}
+	
+	private void grow() {
+		int capacity = eventKeys.length * 2;
+		
+		eventKeys = Arrays.copyOf(eventKeys, capacity);
+		eventBegins = Arrays.copyOf(eventBegins, capacity);
+		eventCategoriesA = Arrays.copyOf(eventCategoriesA, capacity);
+		eventCategoriesB = Arrays.copyOf(eventCategoriesB, capacity);
+		eventFixturesA = Arrays.copyOf(eventFixturesA, capacity);
+		eventFixturesB = Arrays.copyOf(eventFixturesB, capacity);
+		eventEntitiesA = Arrays.copyOf(eventEntitiesA, capacity);
+		eventEntitiesB = Arrays.copyOf(eventEntitiesB, capacity);
+	}
+	
+	private void addInternal(int a, int b, ContactAdapter listener) {
+		int slot = a * CATEGORIES + b;
+		ContactAdapter[] current = listeners[slot];
+		
+		for (int i = 0; i < current.length; ++i) {
+			if (current[i] == listener) { return; }
 		}
 		
-		listenerMap.put(categoryB, listener);
+		// Registration is rare, copy on write keeps dispatch a plain loop
+		ContactAdapter[] grown = new ContactAdapter[current.length + 1];
+		System.arraycopy(current, 0, grown, 0, current.length);
+		grown[current.length] = listener;
+		
+		listeners[slot] = grown;
+		pairs[a] |= 1 << b;
 	}
 	
-	private ContactListener get(short categoryA, short categoryB) {
-		ObjectMap<Short, ContactListener> listenersMap = listeners.get(categoryA);
+	private void removeInternal(int a, int b, ContactAdapter listener) {
+		int slot = a * CATEGORIES + b;
+		ContactAdapter[] current = listeners[slot];
+		int count = 0;
 		
-		if (listenersMap == null) {
-			return null;
+		for (int i = 0; i < current.length; ++i) {
+			if (current[i] != listener) { ++count; }
 		}
 		
-		return listenersMap.get(categoryB);
+		if (count == current.length) { return; }
+		
+		if (count == 0) {
+			listeners[slot] = NONE;
+			pairs[a] &= ~(1 << b);
+			return;
+		}
+		
+		ContactAdapter[] shrunk = new ContactAdapter[count];
+		int j = 0;
+		
+		for (int i = 0; i < current.length; ++i) {
+			if (current[i] != listener) { shrunk[j++] = current[i]; }
+		}
+		
+		listeners[slot] = shrunk;
+	}
+	
+	private ContactAdapter[] get(Contact contact) {
+		int slot = getSlot(
+			contact.getFixtureA().getFilterData().categoryBits,
+			contact.getFixtureB().getFilterData().categoryBits
+		);
+		
+		return slot < 0 ? NONE : listeners[slot];
+	}
+	
+	/**
+	 * Index of the pair in listeners, -1 when nothing listens to it.
+	 */
+	private int getSlot(short categoryA, short categoryB) {
+		int a = getIndex(categoryA);
+		
+		if (a < 0 || (pairs[a] & categoryB & -categoryB) == 0) {
+			return -1;
+		}
+		
+		return a * CATEGORIES + getIndex(categoryB);
+	}
+	
+	private static Entity getEntity(Fixture fixture) {
+		Object data = fixture.getBody().getUserData();
+		
+		return data instanceof Entity ? (Entity)data : null;
+	}
+	
+	/**
+	 * Position of the lowest category bit, -1 for no category.
+	 */
+	private static int getIndex(short category) {
+		int bits = category & 0xFFFF;
+		
+		return bits == 0 ? -1 : Integer.numberOfTrailingZeros(bits);
 	}
-}
\ No newline at end of file
+}
@@ -4,22 +4,23 @@ import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.physics.box2d.Contact;
 import com.badlogic.gdx.physics.box2d.ContactImpulse;
-import com.badlogic.gdx.physics.box2d.ContactListener;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.Manifold;
 
-public abstract class ContactAdapter implements ContactListener {
+/**
+ * Base for the listeners registered with CollisionHandler. Begin and end
+ * arrive as ContactEvents once the world step is over, so they are free to
+ * create and destroy bodies. preSolve and postSolve still run inside the
+ * step, on the live Contact.
+ */
+public abstract class ContactAdapter {
 
-	@Override
-	public void beginContact(Contact contact) {}
+	public void beginContact(ContactEvent event) {}
 
-	@Override
-	public void endContact(Contact contact) {}
+	public void endContact(ContactEvent event) {}
 
-	@Override
 	public void preSolve(Contact contact, Manifold oldManifold) {}
 
-	@Override
 	public void postSolve(Contact contact, ContactImpulse impulse) {}
 	
 	protected boolean matches(Contact contact, Fixture fixture) {
@@ -27,6 +28,11 @@ public abstract class ContactAdapter implements ContactListener {
 			   contact.getFixtureB() == fixture;
 	}
 	
+	protected boolean matches(ContactEvent event, Fixture fixture) {
+		return event.fixtureA == fixture ||
+			   event.fixtureB == fixture;
+	}
+	
 	protected Entity getEntity(Contact contact,
 							   Class<? extends Component> componentClass) {
 		Object dataA = contact.getFixtureA().getBody().getUserData();
@@ -50,4 +56,19 @@ public abstract class ContactAdapter implements ContactListener {
 		
 		return null;
 	}
+	
+	protected Entity getEntity(ContactEvent event,
+							   Class<? extends Component> componentClass) {
+		if (event.entityA != null &&
+			event.entityA.getComponent(componentClass) != null) {
+			return event.entityA;
+		}
+		
+		if (event.entityB != null &&
+			event.entityB.getComponent(componentClass) != null) {
+			return event.entityB;
+		}
+		
+		return null;
+	}
 }
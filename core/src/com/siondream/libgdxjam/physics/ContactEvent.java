@@ -0,0 +1,49 @@
+package com.siondream.libgdxjam.physics;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.physics.box2d.Fixture;
+
+/**
+ * Begin or end of a contact as recorded by CollisionHandler during a world
+ * step. Box2D reuses its Contact object across callbacks, so the fixtures,
+ * their categories and the entities owning their bodies are copied out when
+ * the callback fires.
+ *
+ * A single instance is reused while events are dispatched, listeners must
+ * not hold on to it.
+ */
+public class ContactEvent {
+	Fixture fixtureA;
+	Fixture fixtureB;
+	Entity entityA;
+	Entity entityB;
+	short categoryA;
+	short categoryB;
+	
+	public Fixture getFixtureA() {
+		return fixtureA;
+	}
+	
+	public Fixture getFixtureB() {
+		return fixtureB;
+	}
+	
+	/**
+	 * Entity stored as user data of the body of fixture A, null if none.
+	 */
+	public Entity getEntityA() {
+		return entityA;
+	}
+	
+	public Entity getEntityB() {
+		return entityB;
+	}
+	
+	public short getCategoryA() {
+		return categoryA;
+	}
+	
+	public short getCategoryB() {
+		return categoryB;
+	}
+}
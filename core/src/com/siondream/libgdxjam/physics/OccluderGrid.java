@@ -0,0 +1,338 @@
+package com.siondream.libgdxjam.physics;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Line of sight against the static level outlines, in plain Java. Segments
+ * are added once when a scene is loaded and bucketed into a uniform grid,
+ * stored as one flat index array with an offset per cell. A query walks the
+ * cells the line crosses, in order, and stops at the first segment it hits,
+ * so nothing goes through Box2D and nothing is allocated.
+ *
+ * Segments are bucketed by their bounds, which for the mostly axis aligned
+ * walls of a level is the set of cells they cross. Queries are not thread
+ * safe, but only read the grid, so a single thread other than the one
+ * stepping the world may run them.
+ */
+public class OccluderGrid {
+	public static final float CELL_SIZE = 2.0f;
+	
+	private static final int SEGMENT_SIZE = 4;
+	private static final int MAX_CELLS = 1 << 16;
+	private static final Vector2 vertex = new Vector2();
+	
+	private float[] segments = new float[64];
+	private int size;
+	private boolean dirty;
+	
+	// Cell (x, y) holds items[starts[y * columns + x]] to items[starts[... + 1]]
+	private float cellSize;
+	private float originX, originY;
+	private int columns, rows;
+	private int[] starts = new int[1];
+	private int[] items = new int[0];
+	
+	// Segments already tested by the current query
+	private int[] stamps = new int[16];
+	private int stamp;
+	
+	/**
+	 * Local space outline of the solid polygon fixtures of a body, as
+	 * segments x1, y1, x2, y2. Sensors do not block sight.
+	 */
+	public static float[] getOutline(Body body) {
+		int count = 0;
+		Array<Fixture> fixtures = body.getFixtureList();
+		
+		for (Fixture fixture : fixtures) {
+			if (!fixture.isSensor() && fixture.getType() == Shape.Type.Polygon) {
+				count += ((PolygonShape)fixture.getShape()).getVertexCount();
+			}
+		}
+		
+		float[] outline = new float[count * SEGMENT_SIZE];
+		int index = 0;
+		
+		for (Fixture fixture : fixtures) {
+			if (fixture.isSensor() || fixture.getType() != Shape.Type.Polygon) {
+				continue;
+			}
+			
+			PolygonShape polygon = (PolygonShape)fixture.getShape();
+			int vertices = polygon.getVertexCount();
+			
+			for (int i = 0; i < vertices; ++i) {
+				polygon.getVertex(i, vertex);
+				outline[index] = vertex.x;
+				outline[index + 1] = vertex.y;
+				polygon.getVertex((i + 1) % vertices, vertex);
+				outline[index + 2] = vertex.x;
+				outline[index + 3] = vertex.y;
+				index += SEGMENT_SIZE;
+			}
+		}
+		
+		return outline;
+	}
+	
+	/**
+	 * Adds a local space outline placed at the given position and angle, in
+	 * degrees.
+	 */
+	public void add(float[] outline, float x, float y, float angle) {
+		float cos = MathUtils.cosDeg(angle);
+		float sin = MathUtils.sinDeg(angle);
+		
+		for (int i = 0; i < outline.length; i += SEGMENT_SIZE) {
+			add(
+				x + outline[i] * cos - outline[i + 1] * sin,
+				y + outline[i] * sin + outline[i + 1] * cos,
+				x + outline[i + 2] * cos - outline[i + 3] * sin,
+				y + outline[i + 2] * sin + outline[i + 3] * cos
+			);
+		}
+	}
+	
+	public void add(float x1, float y1, float x2, float y2) {
+		if (size + SEGMENT_SIZE > segments.length) {
+			segments = Arrays.copyOf(segments, segments.length * 2);
+		}
+		
+		segments[size] = x1;
+		segments[size + 1] = y1;
+		segments[size + 2] = x2;
+		segments[size + 3] = y2;
+		size += SEGMENT_SIZE;
+		dirty = true;
+	}
+	
+	public int getSegments() {
+		return size / SEGMENT_SIZE;
+	}
+	
+	/**
+	 * Whether the line from (x1, y1) to (x2, y2) crosses or touches any
+	 * segment.
+	 */
+	public boolean intersects(float x1, float y1, float x2, float y2) {
+		if (dirty) {
+			build();
+		}
+		
+		if (size == 0) { return false; }
+		
+		// Clip the line to the grid, t0 and t1 are fractions along it
+		float dx = x2 - x1;
+		float dy = y2 - y1;
+		float maxX = originX + columns * cellSize;
+		float maxY = originY + rows * cellSize;
+		float t0 = 0.0f;
+		float t1 = 1.0f;
+		
+		if (dx != 0.0f) {
+			float ta = (originX - x1) / dx;
+			float tb = (maxX - x1) / dx;
+			t0 = Math.max(t0, Math.min(ta, tb));
+			t1 = Math.min(t1, Math.max(ta, tb));
+		}
+		else if (x1 < originX || x1 > maxX) {
+			return false;
+		}
+		
+		if (dy != 0.0f) {
+			float ta = (originY - y1) / dy;
+			float tb = (maxY - y1) / dy;
+			t0 = Math.max(t0, Math.min(ta, tb));
+			t1 = Math.min(t1, Math.max(ta, tb));
+		}
+		else if (y1 < originY || y1 > maxY) {
+			return false;
+		}
+		
+		if (t0 > t1) { return false; }
+		
+		if (++stamp == 0) {
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+		
+		// Walk the cells in the order the line enters them
+		float startX = x1 + dx * t0;
+		float startY = y1 + dy * t0;
+		int cellX = clamp((int)((startX - originX) / cellSize), columns);
+		int cellY = clamp((int)((startY - originY) / cellSize), rows);
+		int stepX = dx > 0.0f ? 1 : -1;
+		int stepY = dy > 0.0f ? 1 : -1;
+		float deltaX = dx != 0.0f ? Math.abs(cellSize / dx) : Float.MAX_VALUE;
+		float deltaY = dy != 0.0f ? Math.abs(cellSize / dy) : Float.MAX_VALUE;
+		float nextX = dx != 0.0f ? (originX + (cellX + (stepX > 0 ? 1 : 0)) * cellSize - x1) / dx : Float.MAX_VALUE;
+		float nextY = dy != 0.0f ? (originY + (cellY + (stepY > 0 ? 1 : 0)) * cellSize - y1) / dy : Float.MAX_VALUE;
+		
+		while (true) {
+			if (intersectsCell(cellY * columns + cellX, x1, y1, x2, y2)) {
+				return true;
+			}
+			
+			if (Math.min(nextX, nextY) > t1) { break; }
+			
+			if (nextX < nextY) {
+				cellX += stepX;
+				nextX += deltaX;
+			}
+			else {
+				cellY += stepY;
+				nextY += deltaY;
+			}
+			
+			if (cellX < 0 || cellX >= columns || cellY < 0 || cellY >= rows) {
+				break;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Whether segment (ax, ay)-(bx, by) crosses or touches (cx, cy)-(dx, dy).
+	 */
+	public static boolean intersects(float ax, float ay, float bx, float by,
+									 float cx, float cy, float dx, float dy) {
+		float rx = bx - ax;
+		float ry = by - ay;
+		float sx = dx - cx;
+		float sy = dy - cy;
+		float denominator = rx * sy - ry * sx;
+		float qx = cx - ax;
+		float qy = cy - ay;
+		
+		if (denominator == 0.0f) {
+			// Parallel, they only meet when collinear and overlapping
+			if (qx * ry - qy * rx != 0.0f) { return false; }
+			
+			float length2 = rx * rx + ry * ry;
+			
+			if (length2 == 0.0f) { return qx == 0.0f && qy == 0.0f; }
+			
+			float t0 = (qx * rx + qy * ry) / length2;
+			float t1 = t0 + (sx * rx + sy * ry) / length2;
+			
+			return Math.max(t0, t1) >= 0.0f && Math.min(t0, t1) <= 1.0f;
+		}
+		
+		float t = (qx * sy - qy * sx) / denominator;
+		float u = (qx * ry - qy * rx) / denominator;
+		
+		return t >= 0.0f && t <= 1.0f && u >= 0.0f && u <= 1.0f;
+	}
+	
+	private boolean intersectsCell(int cell, float x1, float y1, float x2, float y2) {
+		for (int i = starts[cell], end = starts[cell + 1]; i < end; ++i) {
+			int segment = items[i];
+			
+			if (stamps[segment] == stamp) { continue; }
+			
+			stamps[segment] = stamp;
+			int offset = segment * SEGMENT_SIZE;
+			
+			if (intersects(x1, y1, x2, y2,
+						   segments[offset], segments[offset + 1],
+						   segments[offset + 2], segments[offset + 3])) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private void build() {
+		dirty = false;
+		
+		int count = size / SEGMENT_SIZE;
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		
+		for (int i = 0; i < size; i += 2) {
+			minX = Math.min(minX, segments[i]);
+			minY = Math.min(minY, segments[i + 1]);
+			maxX = Math.max(maxX, segments[i]);
+			maxY = Math.max(maxY, segments[i + 1]);
+		}
+		
+		// Big levels get coarser cells rather than an unbounded grid
+		cellSize = CELL_SIZE;
+		
+		while (cellCount(minX, minY, maxX, maxY) > MAX_CELLS) {
+			cellSize *= 2.0f;
+		}
+		
+		originX = minX;
+		originY = minY;
+		columns = (int)((maxX - minX) / cellSize) + 1;
+		rows = (int)((maxY - minY) / cellSize) + 1;
+		starts = new int[columns * rows + 1];
+		stamps = new int[Math.max(count, 1)];
+		stamp = 0;
+		
+		// Count, turn counts into offsets, then fill
+		for (int i = 0; i < count; ++i) {
+			int offset = i * SEGMENT_SIZE;
+			int x0 = column(Math.min(segments[offset], segments[offset + 2]));
+			int x1 = column(Math.max(segments[offset], segments[offset + 2]));
+			int y0 = row(Math.min(segments[offset + 1], segments[offset + 3]));
+			int y1 = row(Math.max(segments[offset + 1], segments[offset + 3]));
+			
+			for (int y = y0; y <= y1; ++y) {
+				for (int x = x0; x <= x1; ++x) {
+					++starts[y * columns + x + 1];
+				}
+			}
+		}
+		
+		for (int i = 1; i < starts.length; ++i) {
+			starts[i] += starts[i - 1];
+		}
+		
+		items = new int[starts[starts.length - 1]];
+		int[] next = Arrays.copyOf(starts, starts.length - 1);
+		
+		for (int i = 0; i < count; ++i) {
+			int offset = i * SEGMENT_SIZE;
+			int x0 = column(Math.min(segments[offset], segments[offset + 2]));
+			int x1 = column(Math.max(segments[offset], segments[offset + 2]));
+			int y0 = row(Math.min(segments[offset + 1], segments[offset + 3]));
+			int y1 = row(Math.max(segments[offset + 1], segments[offset + 3]));
+			
+			for (int y = y0; y <= y1; ++y) {
+				for (int x = x0; x <= x1; ++x) {
+					items[next[y * columns + x]++] = i;
+				}
+			}
+		}
+	}
+	
+	private float cellCount(float minX, float minY, float maxX, float maxY) {
+		return ((maxX - minX) / cellSize + 1.0f) * ((maxY - minY) / cellSize + 1.0f);
+	}
+	
+	private int column(float x) {
+		return clamp((int)((x - originX) / cellSize), columns);
+	}
+	
+	private int row(float y) {
+		return clamp((int)((y - originY) / cellSize), rows);
+	}
+	
+	private static int clamp(int cell, int cells) {
+		return Math.max(0, Math.min(cell, cells - 1));
+	}
+}
@@ -23,15 +23,24 @@ import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.MassData;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
 
+/**
+ * Template for bodies loaded by PhysicsDataLoader. The fixture definitions,
+ * and so their native shapes, are shared by every body created from it.
+ *
+ * Creating a fixture with density recomputes the body mass, so the mass data
+ * from the file only sticks when every fixture has zero density. The
+ * template works that out once instead of sending it to every body.
+ */
 public class PhysicsData {
 	
 	BodyDef bodyDef = new BodyDef();
 	MassData massData = new MassData();
 	Array<FixtureDef> fixtureDefs = new Array<FixtureDef>();
 	Array<String> fixtureNames = new Array<String>();
-	ObjectMap<String, Integer> fixtureIdx = new ObjectMap<String, Integer>();
+	ObjectIntMap<String> fixtureIdx = new ObjectIntMap<String>();
+	private int massDataState = -1;
 
 	public BodyDef getBodyDef() {
 		return bodyDef;
@@ -45,8 +54,29 @@ public class PhysicsData {
 		return fixtureDefs;
 	}
 	
+	public int getFixtureCount() {
+		return fixtureDefs.size;
+	}
+	
+	/**
+	 * Index of the named fixture in the template, -1 if there is none.
+	 */
 	public int getFixtureIdx(String name) {
-		return fixtureIdx.get(name);
+		return fixtureIdx.get(name, -1);
+	}
+	
+	/**
+	 * Resolves several fixture names at once, for callers to keep around and
+	 * index the arrays filled by createBody().
+	 */
+	public int[] getFixtureIndices(String... names) {
+		int[] indices = new int[names.length];
+		
+		for (int i = 0; i < names.length; ++i) {
+			indices[i] = getFixtureIdx(names[i]);
+		}
+		
+		return indices;
 	}
 	
 	public String getFixtureName(int index) {
@@ -54,15 +84,78 @@ public class PhysicsData {
 	}
 	
 	public Body createBody(World world, Object userData) {
+		return createBody(world, userData, bodyDef.position.x, bodyDef.position.y, null);
+	}
+	
+	/**
+	 * Creates a body already placed at x, y, which saves the setTransform()
+	 * call. When fixtures is not null it receives the created fixtures in
+	 * template order.
+	 */
+	public Body createBody(World world,
+						   Object userData,
+						   float x,
+						   float y,
+						   Fixture[] fixtures) {
+		float defaultX = bodyDef.position.x;
+		float defaultY = bodyDef.position.y;
+		
+		bodyDef.position.set(x, y);
 		Body body = world.createBody(bodyDef);
-		body.setMassData(massData);
+		bodyDef.position.set(defaultX, defaultY);
+		
 		body.setUserData(userData);
 		
 		for (int i = 0; i < fixtureDefs.size; ++i) {
 			Fixture fixture = body.createFixture(fixtureDefs.get(i));
 			fixture.setUserData(i);
+			
+			if (fixtures != null) {
+				fixtures[i] = fixture;
+			}
+		}
+		
+		if (keepsMassData()) {
+			body.setMassData(massData);
 		}
 		
 		return body;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Creates count bodies in one go, body i at positions[2i], positions[2i + 1]
+	 * with userData[i]. Bodies are added to out.
+	 */
+	public void createBodies(World world,
+							 Object[] userData,
+							 float[] positions,
+							 int count,
+							 Array<Body> out) {
+		out.ensureCapacity(count);
+		
+		for (int i = 0; i < count; ++i) {
+			out.add(createBody(
+				world,
+				userData[i],
+				positions[i * 2],
+				positions[i * 2 + 1],
+				null
+			));
+		}
+	}
+	
+	private boolean keepsMassData() {
+		if (massDataState < 0) {
+			massDataState = 1;
+			
+			for (FixtureDef fixtureDef : fixtureDefs) {
+				if (fixtureDef.density > 0.0f) {
+					massDataState = 0;
+					break;
+				}
+			}
+		}
+		
+		return massDataState == 1;
+	}
+}
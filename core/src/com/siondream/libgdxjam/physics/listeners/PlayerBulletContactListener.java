@@ -8,9 +8,6 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.collision.BoundingBox;
-import com.badlogic.gdx.physics.box2d.Contact;
-import com.badlogic.gdx.utils.Timer;
-import com.badlogic.gdx.utils.Timer.Task;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.NodeUtils;
@@ -21,14 +18,23 @@ import com.siondream.libgdxjam.ecs.components.TransformComponent;
 import com.siondream.libgdxjam.ecs.components.ZIndexComponent;
 import com.siondream.libgdxjam.ecs.components.agents.PlayerComponent;
 import com.siondream.libgdxjam.physics.ContactAdapter;
+import com.siondream.libgdxjam.physics.ContactEvent;
 import com.siondream.libgdxjam.progression.Event;
 import com.siondream.libgdxjam.progression.EventManager;
 import com.siondream.libgdxjam.progression.EventType;
 import com.siondream.libgdxjam.progression.SceneManager;
 
+/**
+ * Kills the player when a bullet hits them. The death event fires after
+ * KILL_DELAY seconds of simulation time, counted down by update(), which
+ * AttackSystem calls every step.
+ */
 public class PlayerBulletContactListener extends ContactAdapter {
+	private static final float KILL_DELAY = 2.0f;
+	
 	private Engine engine;
 	private Sound laserHit;
+	private float killTimer = -1.0f;
 	
 	public PlayerBulletContactListener(Engine engine) {
 		this.engine = engine;
@@ -38,24 +44,29 @@ public class PlayerBulletContactListener extends ContactAdapter {
 	}
 	
 	@Override
-	public void beginContact(Contact contact) {
-		Entity entity = getEntity(contact, PlayerComponent.class);
+	public void beginContact(ContactEvent event) {
+		Entity entity = getEntity(event, PlayerComponent.class);
+		
+		// Several bullets may hit within the same step
+		if (entity == null || killTimer >= 0.0f) { return; }
 		
 		spawnSmoke(entity);
-		laserHit.play();
+		Env.getGame().getMainThreadQueue().play(laserHit);
 		engine.removeEntity(entity);
-		Timer.instance().scheduleTask(
-			new Task() {
-				@Override
-				public void run() {
-					EventManager.fireEvent(
-						SceneManager.getCurrentScene(),
-						new Event(EventType.YOU_HAVE_BEEN_KILLED, false, false)
-					);
-				}
-			},
-			2.0f
-		);
+		killTimer = KILL_DELAY;
+	}
+	
+	public void update(float deltaTime) {
+		if (killTimer < 0.0f) { return; }
+		
+		killTimer -= deltaTime;
+		
+		if (killTimer < 0.0f) {
+			EventManager.fireEvent(
+				SceneManager.getCurrentScene(),
+				new Event(EventType.YOU_HAVE_BEEN_KILLED, false, false)
+			);
+		}
 	}
 	
 	private void spawnSmoke(Entity entity) {
@@ -12,6 +12,7 @@ import com.siondream.libgdxjam.ecs.Mappers;
 import com.siondream.libgdxjam.ecs.components.agents.PlayerComponent;
 import com.siondream.libgdxjam.ecs.systems.agents.PlayerFootsteps;
 import com.siondream.libgdxjam.physics.ContactAdapter;
+import com.siondream.libgdxjam.physics.ContactEvent;
 
 public class PlayerLevelContactListener extends ContactAdapter {
 	private Logger logger = new Logger(
@@ -26,10 +27,15 @@ public class PlayerLevelContactListener extends ContactAdapter {
 	}
 	
 	@Override
-	public void beginContact(Contact contact) {
-		PlayerComponent player = getPlayer(contact);
+	public void beginContact(ContactEvent event) {
+		PlayerComponent player = getPlayer(event);
+		
+		if (matches(event, player.otherFeetSensor)) {
+			player.otherFeetContacts++;
+			return;
+		}
 		
-		if (!matches(contact, player.feetSensor)) { return; }
+		if (!matches(event, player.feetSensor)) { return; }
 		
 		player.feetContacts++;
 		player.grounded = player.feetContacts > 0;
@@ -42,10 +48,15 @@ public class PlayerLevelContactListener extends ContactAdapter {
 	}
 
 	@Override
-	public void endContact(Contact contact) {
-		PlayerComponent player = getPlayer(contact);
+	public void endContact(ContactEvent event) {
+		PlayerComponent player = getPlayer(event);
 		
-		if (!matches(contact, player.feetSensor)) { return; }
+		if (matches(event, player.otherFeetSensor)) {
+			player.otherFeetContacts = Math.max(0, player.otherFeetContacts - 1);
+			return;
+		}
+		
+		if (!matches(event, player.feetSensor)) { return; }
 		
 		player.feetContacts = Math.max(0, player.feetContacts - 1);
 		player.grounded = player.feetContacts > 0;
@@ -69,4 +80,8 @@ public class PlayerLevelContactListener extends ContactAdapter {
 	private PlayerComponent getPlayer(Contact contact) {
 		return Mappers.player.get(getEntity(contact, PlayerComponent.class));
 	}
+	
+	private PlayerComponent getPlayer(ContactEvent event) {
+		return Mappers.player.get(getEntity(event, PlayerComponent.class));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.siondream.libgdxjam.rendering;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Batch handed to code that can only draw itself, particle effects, so its
+ * sprites end up in a RenderSnapshot. Vertex arrays are transformed by the
+ * world transform set with begin() and recorded with the current blend
+ * function, anything else is not supported.
+ */
+class RecordingBatch implements Batch {
+	private final Matrix4 projection = new Matrix4();
+	private final Matrix4 transform = new Matrix4();
+	private final Color color = new Color(1.0f, 1.0f, 1.0f, 1.0f);
+	private RenderSnapshot snapshot;
+	private Affine2 world;
+	private boolean drawing;
+	private boolean blending = true;
+	private int srcFunc = RenderSnapshot.NORMAL_SRC;
+	private int dstFunc = RenderSnapshot.NORMAL_DST;
+	
+	public void begin(RenderSnapshot snapshot, Affine2 world) {
+		this.snapshot = snapshot;
+		this.world = world;
+		begin();
+	}
+	
+	@Override
+	public void begin() {
+		if (drawing) { throw new IllegalStateException("end() must be called before begin()"); }
+		drawing = true;
+		srcFunc = RenderSnapshot.NORMAL_SRC;
+		dstFunc = RenderSnapshot.NORMAL_DST;
+	}
+	
+	@Override
+	public void end() {
+		if (!drawing) { throw new IllegalStateException("begin() must be called before end()"); }
+		drawing = false;
+		snapshot = null;
+		world = null;
+	}
+	
+	@Override
+	public void flush() {}
+	
+	@Override
+	public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+		if (!drawing) { throw new IllegalStateException("begin() must be called before draw()"); }
+		snapshot.addQuads(texture, spriteVertices, offset, count, world, srcFunc, dstFunc);
+	}
+	
+	@Override
+	public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(Texture texture, float x, float y, float width, float height) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y, float width, float height) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+		unsupported();
+	}
+
+	@Override
+	public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+		unsupported();
+	}
+	
+	@Override
+	public void setTransformMatrix(Matrix4 transform) {
+		this.transform.set(transform);
+	}
+	
+	@Override
+	public void setProjectionMatrix(Matrix4 projection) {
+		this.projection.set(projection);
+	}
+	
+	@Override
+	public void setBlendFunction(int srcFunc, int dstFunc) {
+		this.srcFunc = srcFunc;
+		this.dstFunc = dstFunc;
+	}
+	
+	@Override
+	public void disableBlending() {
+		blending = false;
+	}
+
+	@Override
+	public void enableBlending() {
+		blending = true;
+	}
+	
+	@Override
+	public void setShader(ShaderProgram shader) {
+		unsupported();
+	}
+	
+	@Override
+	public boolean isBlendingEnabled() {
+		return blending;
+	}
+
+	@Override
+	public boolean isDrawing() {
+		return drawing;
+	}
+
+	@Override
+	public int getBlendSrcFunc() {
+		return srcFunc;
+	}
+
+	@Override
+	public int getBlendDstFunc() {
+		return dstFunc;
+	}
+
+	@Override
+	public ShaderProgram getShader() {
+		return null;
+	}
+
+	@Override
+	public Matrix4 getProjectionMatrix() {
+		return projection;
+	}
+
+	@Override
+	public Matrix4 getTransformMatrix() {
+		return transform;
+	}
+
+	@Override
+	public void setColor(Color tint) {
+		color.set(tint);
+	}
+
+	@Override
+	public void setColor(float r, float g, float b, float a) {
+		color.set(r, g, b, a);
+	}
+
+	@Override
+	public void setColor(float color) {
+		int bits = NumberUtils.floatToIntColor(color);
+		this.color.set(
+			(bits & 0xff) / 255.0f,
+			((bits >>> 8) & 0xff) / 255.0f,
+			((bits >>> 16) & 0xff) / 255.0f,
+			((bits >>> 24) & 0xff) / 255.0f
+		);
+	}
+
+	@Override
+	public Color getColor() {
+		return color;
+	}
+
+	@Override
+	public float getPackedColor() {
+		return color.toFloatBits();
+	}
+	
+	@Override
+	public void dispose() {}
+	
+	private static void unsupported() {
+		throw new UnsupportedOperationException("only vertex arrays can be recorded");
+	}
+}
@@ -0,0 +1,541 @@
+package com.siondream.libgdxjam.rendering;
+
+import java.util.Arrays;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.esotericsoftware.spine.BlendMode;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.MeshAttachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+import com.esotericsoftware.spine.attachments.SkinnedMeshAttachment;
+import com.siondream.libgdxjam.ecs.Mappers;
+import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.components.ParticleComponent;
+import com.siondream.libgdxjam.ecs.components.SizeComponent;
+import com.siondream.libgdxjam.ecs.components.SpineComponent;
+import com.siondream.libgdxjam.ecs.components.TextureComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+import com.siondream.libgdxjam.ecs.systems.SpineSystem;
+import com.siondream.libgdxjam.rendering.StaticGeometry.Chunk;
+import com.siondream.libgdxjam.utils.SpatialHash;
+
+/**
+ * Collects what is visible, sorts it back into layer and tree order and
+ * records it into a RenderSnapshot.
+ *
+ * Renderables are registered with add() and kept in a SpatialHash by their
+ * world bounds. Bounds are only recomputed when the NodeComponent version
+ * changes, so a frame touches the entities that moved and the ones in the
+ * cells the view overlaps, not the whole tree.
+ *
+ * Commands are ordered by a 64 bit key: layer index of the top level node
+ * they hang from, then tree order (NodeComponent.order), so everything
+ * overlaps the way the tree says. Sorting only gathers what is visible, it
+ * never reorders art to save flushes: consecutive sprites that share a
+ * texture are recorded as one run and go out in a single flush.
+ *
+ * Textures are emitted as world space quads cached in their TextureComponent.
+ * Spine skeletons and particles are transformed into world space while they
+ * are recorded, so the batch transform matrix never changes either.
+ *
+ * Baked StaticGeometry on the root is queued first in its layer, one command
+ * per visible chunk, under the dynamic art of that layer.
+ */
+public class RenderQueue {
+	private static final int TYPE_TEXTURE = 0;
+	private static final int TYPE_SPINE = 1;
+	private static final int TYPE_PARTICLE = 2;
+	
+	// Low bits index the command, they only make the key unique
+	private static final int COMMAND_BITS = 20;
+	private static final int ORDER_BITS = 20;
+	private static final int LAYER_BITS = 8;
+	private static final int ORDER_SHIFT = COMMAND_BITS;
+	private static final int LAYER_SHIFT = ORDER_SHIFT + ORDER_BITS;
+	private static final long COMMAND_MASK = (1L << COMMAND_BITS) - 1;
+	
+	// A camera view spans about 4x2 cells
+	private static final float CELL_SIZE = 4.0f;
+	
+	private static final float WHITE = Color.WHITE.toFloatBits();
+	
+	public static final Family family = Family.all(
+		NodeComponent.class,
+		TransformComponent.class,
+		SizeComponent.class
+	).one(
+		TextureComponent.class,
+		ParticleComponent.class,
+		SpineComponent.class
+	).get();
+	
+	private final ObjectMap<Entity, Renderable> renderables = new ObjectMap<Entity, Renderable>();
+	private final Array<Renderable> renderableList = new Array<Renderable>();
+	private final SpatialHash<Renderable> grid = new SpatialHash<Renderable>(CELL_SIZE);
+	private final Array<Renderable> candidates = new Array<Renderable>();
+	private final Array<Command> commands = new Array<Command>();
+	private final RecordingBatch recorder = new RecordingBatch();
+	private final BoundingBox bounds = new BoundingBox();
+	private final Rectangle view = new Rectangle();
+	private boolean culling;
+	private long[] keys = new long[64];
+	private int size;
+	private int runs;
+	private int moved;
+	
+	/**
+	 * Tracks a renderable entity, see family. RenderingSystem registers
+	 * everything that enters the engine.
+	 */
+	public void add(Entity entity) {
+		if (renderables.containsKey(entity)) { return; }
+		
+		Renderable renderable = new Renderable(entity);
+		renderable.slot = renderableList.size;
+		renderables.put(entity, renderable);
+		renderableList.add(renderable);
+	}
+	
+	public void remove(Entity entity) {
+		Renderable renderable = renderables.remove(entity);
+		
+		if (renderable == null) { return; }
+		
+		Renderable last = renderableList.pop();
+		
+		if (last != renderable) {
+			renderableList.set(renderable.slot, last);
+			last.slot = renderable.slot;
+		}
+		
+		grid.remove(renderable);
+	}
+	
+	/**
+	 * Starts a new frame, view is the visible world rectangle or null to skip
+	 * culling.
+	 */
+	public void begin(Rectangle view) {
+		culling = view != null;
+		
+		if (culling) {
+			this.view.set(view);
+		}
+		
+		for (int i = 0; i < size; ++i) {
+			Command command = commands.get(i);
+			command.entity = null;
+			command.vertices = null;
+		}
+		
+		size = 0;
+		runs = 0;
+	}
+	
+	/**
+	 * Queues the visible chunks of the geometry baked into root, if any.
+	 */
+	public void collectStatic(Entity root) {
+		if (Mappers.staticGeometry.has(root)) {
+			collect(Mappers.staticGeometry.get(root).geometry);
+		}
+	}
+	
+	/**
+	 * Moves the renderables whose node changed since the last frame in the
+	 * grid, then queues the ones overlapping the view. Off-screen entities
+	 * cost one version check each.
+	 */
+	public void collectVisible() {
+		moved = 0;
+		
+		for (int i = 0; i < renderableList.size; ++i) {
+			updateBounds(renderableList.get(i));
+		}
+		
+		if (!culling) {
+			for (int i = 0; i < renderableList.size; ++i) {
+				queue(renderableList.get(i).entity);
+			}
+			return;
+		}
+		
+		candidates.clear();
+		grid.query(view.x, view.y, view.x + view.width, view.y + view.height, candidates);
+		
+		for (int i = 0; i < candidates.size; ++i) {
+			Renderable renderable = candidates.get(i);
+			
+			if (renderable.overlaps(view)) {
+				queue(renderable.entity);
+			}
+		}
+	}
+	
+	/**
+	 * Sorts the queue and records it into snapshot, which has to be begun.
+	 * Skeletons and particles are flattened into world space vertices, so
+	 * nothing recorded points back at the entities.
+	 */
+	public void record(RenderSnapshot snapshot) {
+		Arrays.sort(keys, 0, size);
+		
+		Texture texture = null;
+		
+		for (int i = 0; i < size; ++i) {
+			Command command = commands.get((int)(keys[i] & COMMAND_MASK));
+			
+			if (command.type == TYPE_TEXTURE) {
+				if (command.texture != texture) {
+					texture = command.texture;
+					++runs;
+				}
+				
+				if (command.entity == null) {
+					snapshot.addStatic(command.texture, command.vertices, 0, command.count);
+				}
+				else {
+					snapshot.addQuads(
+						command.texture,
+						command.vertices, 0, command.count,
+						RenderSnapshot.NORMAL_SRC, RenderSnapshot.NORMAL_DST
+					);
+				}
+				continue;
+			}
+			
+			Affine2 world = Mappers.node.get(command.entity).world;
+			texture = null;
+			++runs;
+			
+			if (command.type == TYPE_SPINE) {
+				// Visible skeletons are posed already unless the camera jumped
+				SpineComponent spine = Mappers.spine.get(command.entity);
+				SpineSystem.pose(spine);
+				recordSpine(snapshot, spine.skeleton, world);
+			}
+			else {
+				recorder.begin(snapshot, world);
+				Mappers.particle.get(command.entity).effect.draw(recorder);
+				recorder.end();
+			}
+		}
+	}
+	
+	/**
+	 * Commands queued this frame.
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Consecutive groups of commands recorded with the same texture, an upper
+	 * bound on the flushes submitting the snapshot causes.
+	 */
+	public int getRuns() {
+		return runs;
+	}
+	
+	/**
+	 * Renderables whose bounds were updated by the last collectVisible().
+	 */
+	public int getMoved() {
+		return moved;
+	}
+	
+	private void collect(StaticGeometry geometry) {
+		Array<Chunk> chunks = geometry.getChunks();
+		
+		for (int i = 0; i < chunks.size; ++i) {
+			Chunk chunk = chunks.get(i);
+			
+			if (culling && !overlaps(chunk.bounds, view)) {
+				continue;
+			}
+			
+			Command command = obtain();
+			command.type = TYPE_TEXTURE;
+			command.texture = chunk.texture;
+			command.vertices = chunk.vertices;
+			command.count = chunk.size;
+			
+			// Order 0, under the dynamic art of the same layer
+			setKey(chunk.layer, 0);
+		}
+	}
+	
+	private void updateBounds(Renderable renderable) {
+		Entity entity = renderable.entity;
+		NodeComponent node = Mappers.node.get(entity);
+		SizeComponent size = Mappers.size.get(entity);
+		
+		if (renderable.version == node.version &&
+			renderable.width == size.width &&
+			renderable.height == size.height) {
+			return;
+		}
+		
+		Vector2 origin = Mappers.transform.get(entity).origin;
+		float scale = Math.max(node.scale.x, node.scale.y);
+		float radius = Math.max(size.width, size.height) * scale;
+		float x = node.position.x + origin.x;
+		float y = node.position.y + origin.y;
+		
+		renderable.minX = x - radius;
+		renderable.minY = y - radius;
+		renderable.maxX = x + radius;
+		renderable.maxY = y + radius;
+		renderable.version = node.version;
+		renderable.width = size.width;
+		renderable.height = size.height;
+		
+		grid.update(renderable, renderable.minX, renderable.minY, renderable.maxX, renderable.maxY);
+		++moved;
+	}
+	
+	private void queue(Entity entity) {
+		NodeComponent node = Mappers.node.get(entity);
+		SizeComponent size = Mappers.size.get(entity);
+		TransformComponent transform = Mappers.transform.get(entity);
+		
+		Command command = obtain();
+		command.entity = entity;
+		
+		if (Mappers.texture.has(entity)) {
+			TextureComponent texture = Mappers.texture.get(entity);
+			updateVertices(texture, node, size, transform);
+			command.type = TYPE_TEXTURE;
+			command.texture = texture.region.getTexture();
+			command.vertices = texture.vertices;
+			command.count = texture.vertices.length;
+		}
+		else if (Mappers.particle.has(entity)) {
+			command.type = TYPE_PARTICLE;
+			command.texture = null;
+			command.vertices = null;
+		}
+		else {
+			command.type = TYPE_SPINE;
+			command.texture = null;
+			command.vertices = null;
+		}
+		
+		setKey(getLayerIndex(entity), node.order);
+	}
+	
+	private void setKey(int layer, int order) {
+		int index = size - 1;
+		
+		keys[index] = ((long)(layer & ((1 << LAYER_BITS) - 1)) << LAYER_SHIFT) |
+					  ((long)(order & ((1 << ORDER_BITS) - 1)) << ORDER_SHIFT) |
+					  index;
+	}
+	
+	private Command obtain() {
+		if (size == commands.size) {
+			commands.add(new Command());
+		}
+		
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, keys.length * 2);
+		}
+		
+		return commands.get(size++);
+	}
+	
+	/**
+	 * Layer of the top level node the entity hangs from, resolved relative to
+	 * the root by LayerSystem.
+	 */
+	private static int getLayerIndex(Entity entity) {
+		Entity top = entity;
+		Entity parent = Mappers.node.get(top).parent;
+		
+		while (parent != null && Mappers.node.get(parent).parent != null) {
+			top = parent;
+			parent = Mappers.node.get(top).parent;
+		}
+		
+		if (parent == null || !Mappers.layer.has(parent) || !Mappers.index.has(top)) {
+			return 0;
+		}
+		
+		return Mappers.index.get(top).layerIndex;
+	}
+	
+	private static boolean overlaps(BoundingBox bounds, Rectangle view) {
+		return bounds.min.x <= view.x + view.width &&
+			   bounds.max.x >= view.x &&
+			   bounds.min.y <= view.y + view.height &&
+			   bounds.max.y >= view.y;
+	}
+	
+	/**
+	 * What SkeletonRenderer draws for the skeleton, without premultiplied
+	 * alpha. Skeleton attachments are not supported.
+	 */
+	private static void recordSpine(RenderSnapshot snapshot, Skeleton skeleton, Affine2 world) {
+		Array<Slot> drawOrder = skeleton.getDrawOrder();
+		
+		for (int i = 0; i < drawOrder.size; ++i) {
+			Slot slot = drawOrder.get(i);
+			Attachment attachment = slot.getAttachment();
+			BlendMode blend = slot.getData().getBlendMode();
+			int blendSrc = blend.getSource(false);
+			int blendDst = blend.getDest();
+			
+			if (attachment instanceof RegionAttachment) {
+				RegionAttachment region = (RegionAttachment)attachment;
+				region.updateWorldVertices(slot, false);
+				float[] vertices = region.getWorldVertices();
+				snapshot.addQuads(
+					region.getRegion().getTexture(),
+					vertices, 0, vertices.length,
+					world,
+					blendSrc, blendDst
+				);
+			}
+			else if (attachment instanceof MeshAttachment) {
+				MeshAttachment mesh = (MeshAttachment)attachment;
+				mesh.updateWorldVertices(slot, false);
+				float[] vertices = mesh.getWorldVertices();
+				short[] triangles = mesh.getTriangles();
+				snapshot.addTriangles(
+					mesh.getRegion().getTexture(),
+					vertices, 0, vertices.length,
+					triangles, 0, triangles.length,
+					world,
+					blendSrc, blendDst
+				);
+			}
+			else if (attachment instanceof SkinnedMeshAttachment) {
+				SkinnedMeshAttachment mesh = (SkinnedMeshAttachment)attachment;
+				mesh.updateWorldVertices(slot, false);
+				float[] vertices = mesh.getWorldVertices();
+				short[] triangles = mesh.getTriangles();
+				snapshot.addTriangles(
+					mesh.getRegion().getTexture(),
+					vertices, 0, vertices.length,
+					triangles, 0, triangles.length,
+					world,
+					blendSrc, blendDst
+				);
+			}
+		}
+	}
+	
+	/**
+	 * Rebuilds the cached quad only when the node's world transform, the size
+	 * or the region changed since it was built. Static art never does.
+	 */
+	private static void updateVertices(TextureComponent texture,
+									   NodeComponent node,
+									   SizeComponent size,
+									   TransformComponent transform) {
+		if (texture.verticesVersion == node.version &&
+			texture.verticesRegion == texture.region &&
+			texture.verticesWidth == size.width &&
+			texture.verticesHeight == size.height) {
+			return;
+		}
+		
+		computeVertices(texture.vertices, node.world, texture.region, size, transform);
+		
+		texture.verticesVersion = node.version;
+		texture.verticesRegion = texture.region;
+		texture.verticesWidth = size.width;
+		texture.verticesHeight = size.height;
+	}
+	
+	/**
+	 * Same quad batch.draw(region, 0, 0, 0, 0, w, h, sx, sy, 0) produces
+	 * under a node.computed transform matrix, in world space.
+	 */
+	static void computeVertices(float[] vertices,
+								Affine2 world,
+								TextureRegion region,
+								SizeComponent size,
+								TransformComponent transform) {
+		float w = size.width * transform.scale.x;
+		float h = size.height * transform.scale.y;
+		
+		float x1 = world.m02;
+		float y1 = world.m12;
+		float x2 = world.m01 * h + world.m02;
+		float y2 = world.m11 * h + world.m12;
+		float x3 = world.m00 * w + world.m01 * h + world.m02;
+		float y3 = world.m10 * w + world.m11 * h + world.m12;
+		float x4 = world.m00 * w + world.m02;
+		float y4 = world.m10 * w + world.m12;
+		
+		float u = region.getU();
+		float v = region.getV2();
+		float u2 = region.getU2();
+		float v2 = region.getV();
+		
+		vertices[Batch.X1] = x1;
+		vertices[Batch.Y1] = y1;
+		vertices[Batch.C1] = WHITE;
+		vertices[Batch.U1] = u;
+		vertices[Batch.V1] = v;
+		
+		vertices[Batch.X2] = x2;
+		vertices[Batch.Y2] = y2;
+		vertices[Batch.C2] = WHITE;
+		vertices[Batch.U2] = u;
+		vertices[Batch.V2] = v2;
+		
+		vertices[Batch.X3] = x3;
+		vertices[Batch.Y3] = y3;
+		vertices[Batch.C3] = WHITE;
+		vertices[Batch.U3] = u2;
+		vertices[Batch.V3] = v2;
+		
+		vertices[Batch.X4] = x4;
+		vertices[Batch.Y4] = y4;
+		vertices[Batch.C4] = WHITE;
+		vertices[Batch.U4] = u2;
+		vertices[Batch.V4] = v;
+	}
+	
+	private static class Renderable {
+		final Entity entity;
+		int slot;
+		int version = -1;
+		float width, height;
+		float minX, minY, maxX, maxY;
+		
+		Renderable(Entity entity) {
+			this.entity = entity;
+		}
+		
+		boolean overlaps(Rectangle view) {
+			return minX <= view.x + view.width &&
+				   maxX >= view.x &&
+				   minY <= view.y + view.height &&
+				   maxY >= view.y;
+		}
+	}
+	
+	private static class Command {
+		Entity entity;
+		int type;
+		Texture texture;
+		float[] vertices;
+		int count;
+	}
+}
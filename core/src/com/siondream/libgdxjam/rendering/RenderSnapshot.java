@@ -0,0 +1,233 @@
+package com.siondream.libgdxjam.rendering;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Everything the world pass draws in a frame, in submission order, detached
+ * from the entities it came from. RenderQueue records it wherever the
+ * simulation runs and RenderingSystem submits it on the GL thread, so the
+ * next frame can be simulated while this one is drawn.
+ *
+ * Vertices are in world space. Sprites, skeletons and particles are copied
+ * into the snapshot's own pools, baked static chunks never change after a
+ * scene is loaded and are referenced instead.
+ */
+public class RenderSnapshot {
+	public static final int NORMAL_SRC = GL20.GL_SRC_ALPHA;
+	public static final int NORMAL_DST = GL20.GL_ONE_MINUS_SRC_ALPHA;
+	
+	private static final int VERTEX_SIZE = 5;
+	
+	private final Matrix4 projection = new Matrix4();
+	private int frame = -1;
+	
+	// Draws, triangleCounts[i] is 0 for a run of quads
+	private int draws;
+	private Texture[] textures = new Texture[64];
+	private float[][] sources = new float[64][];
+	private int[] vertexOffsets = new int[64];
+	private int[] vertexCounts = new int[64];
+	private int[] triangleOffsets = new int[64];
+	private int[] triangleCounts = new int[64];
+	private int[] blendSrcs = new int[64];
+	private int[] blendDsts = new int[64];
+	
+	private float[] vertices = new float[4096];
+	private int vertexSize;
+	private short[] triangles = new short[1024];
+	private int triangleSize;
+	
+	/**
+	 * Drops the previous contents, the frame number is only used to tell
+	 * snapshots apart.
+	 */
+	public void begin(int frame, Matrix4 projection) {
+		for (int i = 0; i < draws; ++i) {
+			textures[i] = null;
+			sources[i] = null;
+		}
+		
+		this.frame = frame;
+		this.projection.set(projection);
+		draws = 0;
+		vertexSize = 0;
+		triangleSize = 0;
+	}
+	
+	public int getFrame() {
+		return frame;
+	}
+	
+	public Matrix4 getProjection() {
+		return projection;
+	}
+	
+	public int getDrawCount() {
+		return draws;
+	}
+	
+	/**
+	 * Floats copied into the snapshot, referenced static chunks excluded.
+	 */
+	public int getVertexCount() {
+		return vertexSize;
+	}
+	
+	/**
+	 * Hash of the copied vertices, snapshots recorded from the same state hash
+	 * the same whichever thread recorded them.
+	 */
+	public int getVertexHash() {
+		int hash = 0;
+		
+		for (int i = 0; i < vertexSize; ++i) {
+			hash += Float.floatToIntBits(vertices[i]) * 31 + i;
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Quads that stay valid until the scene is unloaded, not copied.
+	 */
+	public void addStatic(Texture texture, float[] source, int offset, int count) {
+		int draw = obtain(texture, NORMAL_SRC, NORMAL_DST);
+		
+		sources[draw] = source;
+		vertexOffsets[draw] = offset;
+		vertexCounts[draw] = count;
+	}
+	
+	/**
+	 * Copies world space quads.
+	 */
+	public void addQuads(Texture texture, float[] source, int offset, int count, int blendSrc, int blendDst) {
+		int draw = obtain(texture, blendSrc, blendDst);
+		
+		vertexOffsets[draw] = reserveVertices(count);
+		vertexCounts[draw] = count;
+		System.arraycopy(source, offset, vertices, vertexOffsets[draw], count);
+	}
+	
+	/**
+	 * Copies quads given in local space, transforming them by world.
+	 */
+	public void addQuads(Texture texture, float[] source, int offset, int count, Affine2 world, int blendSrc, int blendDst) {
+		int draw = obtain(texture, blendSrc, blendDst);
+		
+		vertexOffsets[draw] = reserveVertices(count);
+		vertexCounts[draw] = count;
+		copyTransformed(source, offset, count, world, vertexOffsets[draw]);
+	}
+	
+	/**
+	 * Copies an indexed mesh given in local space, transforming it by world.
+	 * Indices are relative to the first vertex.
+	 */
+	public void addTriangles(Texture texture,
+							 float[] source, int offset, int count,
+							 short[] indices, int indexOffset, int indexCount,
+							 Affine2 world,
+							 int blendSrc, int blendDst) {
+		int draw = obtain(texture, blendSrc, blendDst);
+		
+		vertexOffsets[draw] = reserveVertices(count);
+		vertexCounts[draw] = count;
+		copyTransformed(source, offset, count, world, vertexOffsets[draw]);
+		
+		if (triangleSize + indexCount > triangles.length) {
+			triangles = Arrays.copyOf(triangles, Math.max(triangles.length * 2, triangleSize + indexCount));
+		}
+		
+		System.arraycopy(indices, indexOffset, triangles, triangleSize, indexCount);
+		triangleOffsets[draw] = triangleSize;
+		triangleCounts[draw] = indexCount;
+		triangleSize += indexCount;
+	}
+	
+	/**
+	 * Draws the snapshot, the batch must be drawing. Blending is left normal.
+	 * Meshes need a PolygonSpriteBatch.
+	 */
+	public void submit(Batch batch) {
+		for (int i = 0; i < draws; ++i) {
+			if (batch.getBlendSrcFunc() != blendSrcs[i] || batch.getBlendDstFunc() != blendDsts[i]) {
+				batch.setBlendFunction(blendSrcs[i], blendDsts[i]);
+			}
+			
+			float[] source = sources[i] != null ? sources[i] : vertices;
+			
+			if (triangleCounts[i] == 0) {
+				batch.draw(textures[i], source, vertexOffsets[i], vertexCounts[i]);
+			}
+			else if (batch instanceof PolygonSpriteBatch) {
+				((PolygonSpriteBatch)batch).draw(
+					textures[i],
+					source, vertexOffsets[i], vertexCounts[i],
+					triangles, triangleOffsets[i], triangleCounts[i]
+				);
+			}
+			else {
+				throw new IllegalArgumentException("PolygonSpriteBatch is required to render meshes");
+			}
+		}
+		
+		batch.setBlendFunction(NORMAL_SRC, NORMAL_DST);
+	}
+	
+	private int obtain(Texture texture, int blendSrc, int blendDst) {
+		if (draws == textures.length) {
+			int capacity = draws * 2;
+			
+			textures = Arrays.copyOf(textures, capacity);
+			sources = Arrays.copyOf(sources, capacity);
+			vertexOffsets = Arrays.copyOf(vertexOffsets, capacity);
+			vertexCounts = Arrays.copyOf(vertexCounts, capacity);
+			triangleOffsets = Arrays.copyOf(triangleOffsets, capacity);
+			triangleCounts = Arrays.copyOf(triangleCounts, capacity);
+			blendSrcs = Arrays.copyOf(blendSrcs, capacity);
+			blendDsts = Arrays.copyOf(blendDsts, capacity);
+		}
+		
+		int draw = draws++;
+		
+		textures[draw] = texture;
+		sources[draw] = null;
+		triangleCounts[draw] = 0;
+		blendSrcs[draw] = blendSrc;
+		blendDsts[draw] = blendDst;
+		
+		return draw;
+	}
+	
+	private int reserveVertices(int count) {
+		if (vertexSize + count > vertices.length) {
+			vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, vertexSize + count));
+		}
+		
+		int offset = vertexSize;
+		vertexSize += count;
+		
+		return offset;
+	}
+	
+	private void copyTransformed(float[] source, int offset, int count, Affine2 world, int target) {
+		for (int i = 0; i < count; i += VERTEX_SIZE) {
+			float x = source[offset + i];
+			float y = source[offset + i + 1];
+			
+			vertices[target + i] = world.m00 * x + world.m01 * y + world.m02;
+			vertices[target + i + 1] = world.m10 * x + world.m11 * y + world.m12;
+			vertices[target + i + 2] = source[offset + i + 2];
+			vertices[target + i + 3] = source[offset + i + 3];
+			vertices[target + i + 4] = source[offset + i + 4];
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.siondream.libgdxjam.rendering;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.siondream.libgdxjam.ecs.components.SizeComponent;
+import com.siondream.libgdxjam.ecs.components.TransformComponent;
+
+/**
+ * World space quads that never move, merged into chunks by layer, texture
+ * and grid cell. Each chunk is culled by its bounds and submitted as a single
+ * batch draw. Filled once when a scene is loaded.
+ */
+public class StaticGeometry {
+	public static final float CHUNK_SIZE = 8.0f;
+	
+	private static final int QUAD_SIZE = 20;
+	
+	private final Array<Chunk> chunks = new Array<Chunk>();
+	private final ObjectMap<Texture, LongMap<Chunk>> lookup = new ObjectMap<Texture, LongMap<Chunk>>();
+	private final float[] quad = new float[QUAD_SIZE];
+	private int quads;
+	
+	public Array<Chunk> getChunks() {
+		return chunks;
+	}
+	
+	public int getQuads() {
+		return quads;
+	}
+	
+	/**
+	 * Adds the quad a TextureComponent with this region, size and transform
+	 * would draw under the given world transform.
+	 */
+	public void add(int layer,
+					TextureRegion region,
+					Affine2 world,
+					SizeComponent size,
+					TransformComponent transform) {
+		RenderQueue.computeVertices(quad, world, region, size, transform);
+		add(layer, region.getTexture(), quad);
+	}
+	
+	private void add(int layer, Texture texture, float[] quad) {
+		float centerX = (quad[0] + quad[5] + quad[10] + quad[15]) * 0.25f;
+		float centerY = (quad[1] + quad[6] + quad[11] + quad[16]) * 0.25f;
+		
+		Chunk chunk = getChunk(
+			layer,
+			texture,
+			(int)Math.floor(centerX / CHUNK_SIZE),
+			(int)Math.floor(centerY / CHUNK_SIZE)
+		);
+		
+		chunk.add(quad);
+		++quads;
+	}
+	
+	private Chunk getChunk(int layer, Texture texture, int x, int y) {
+		LongMap<Chunk> textureChunks = lookup.get(texture);
+		
+		if (textureChunks == null) {
+			textureChunks = new LongMap<Chunk>();
+			lookup.put(texture, textureChunks);
+		}
+		
+		long key = ((long)layer << 40) |
+				   (((long)x & 0xFFFFF) << 20) |
+				   ((long)y & 0xFFFFF);
+		Chunk chunk = textureChunks.get(key);
+		
+		if (chunk == null) {
+			chunk = new Chunk(layer, texture);
+			textureChunks.put(key, chunk);
+			chunks.add(chunk);
+		}
+		
+		return chunk;
+	}
+	
+	public static class Chunk {
+		public final int layer;
+		public final Texture texture;
+		public final BoundingBox bounds = new BoundingBox();
+		public float[] vertices = new float[QUAD_SIZE * 4];
+		public int size;
+		
+		Chunk(int layer, Texture texture) {
+			this.layer = layer;
+			this.texture = texture;
+			bounds.inf();
+		}
+		
+		void add(float[] quad) {
+			if (size + QUAD_SIZE > vertices.length) {
+				float[] grown = new float[vertices.length * 2];
+				System.arraycopy(vertices, 0, grown, 0, size);
+				vertices = grown;
+			}
+			
+			System.arraycopy(quad, 0, vertices, size, QUAD_SIZE);
+			size += QUAD_SIZE;
+			
+			for (int i = 0; i < QUAD_SIZE; i += 5) {
+				bounds.ext(quad[i], quad[i + 1], 0.0f);
+			}
+		}
+	}
+}
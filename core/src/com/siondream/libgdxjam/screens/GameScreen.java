@@ -29,10 +29,14 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.siondream.libgdxjam.Env;
 import com.siondream.libgdxjam.ecs.components.NodeComponent;
+import com.siondream.libgdxjam.ecs.systems.ActivitySystem;
 import com.siondream.libgdxjam.ecs.systems.AnimationControlSystem;
 import com.siondream.libgdxjam.ecs.systems.CameraSystem;
 import com.siondream.libgdxjam.ecs.systems.DoorSystem;
@@ -44,6 +48,7 @@ import com.siondream.libgdxjam.ecs.systems.PhysicsSystem;
 import com.siondream.libgdxjam.ecs.systems.RenderingSystem;
 import com.siondream.libgdxjam.ecs.systems.SensorSystem;
 import com.siondream.libgdxjam.ecs.systems.SpineSystem;
+import com.siondream.libgdxjam.ecs.systems.TransformSystem;
 import com.siondream.libgdxjam.ecs.systems.VisionSystem;
 import com.siondream.libgdxjam.ecs.systems.agents.CCTvSystem;
 import com.siondream.libgdxjam.ecs.systems.agents.GruntSystem;
@@ -64,8 +69,34 @@ public class GameScreen implements Screen, InputProcessor {
 
 	private Engine engine;
 
+	// Simulation clock, the engine always advances by Env.STEP
 	private double accumulator;
-	private double currentTime;
+	private long currentTime;
+	
+	// Simulates the next frame while the current one is drawn
+	private AsyncExecutor simulation = new AsyncExecutor(1);
+	private int pendingSteps;
+	private float pendingAlpha;
+	private AsyncTask<Void> simulate = new AsyncTask<Void>() {
+		@Override
+		public Void call() throws Exception {
+			simulate(pendingSteps, pendingAlpha);
+			return null;
+		}
+	};
+	
+	private Runnable showVictory = new Runnable() {
+		@Override
+		public void run() {
+			victoryWindow.setVisible(true);
+		}
+	};
+	private Runnable showDefeat = new Runnable() {
+		@Override
+		public void run() {
+			defeatWindow.setVisible(true);
+		}
+	};
 	
 	private OverlapScene scene;
 	private Logger logger = new Logger(GameScreen.class.getSimpleName(), Env.LOG_LEVEL);
@@ -119,6 +150,9 @@ public class GameScreen implements Screen, InputProcessor {
 		camera.position.set(0f,0f,0f);
 		engine.getSystem(PlayerSystem.class).setBlockInput(false);
 		
+		currentTime = TimeUtils.nanoTime();
+		accumulator = 0.0;
+		
 		music.play();
 	}
 	
@@ -128,6 +162,7 @@ public class GameScreen implements Screen, InputProcessor {
 		
 		scene.removeFromEngine(engine);
 		engine.removeAllEntities();
+		engine.getSystem(LightSystem.class).removePending();
 		removeInputProcessors();
 		music.stop();
 	}
@@ -153,14 +188,15 @@ public class GameScreen implements Screen, InputProcessor {
 		stage.addActor(mainTable);
 	}
 	
+	// Both are reached from the simulation, the windows are shown in sync()
 	public void showVictory()
 	{
-		victoryWindow.setVisible(true);
+		Env.getGame().getMainThreadQueue().post(showVictory);
 	}
 	
 	public void showDefeat()
 	{
-		defeatWindow.setVisible(true);
+		Env.getGame().getMainThreadQueue().post(showDefeat);
 	}
 
 	//TODO: TO BE IMPROVED
@@ -325,20 +361,92 @@ public class GameScreen implements Screen, InputProcessor {
 	
 	@Override
 	public void render(float delta) {
-		double newTime = TimeUtils.millis() / 1000.0;
-		double frameTime = Math.min(newTime - currentTime, Env.MAX_STEP);
-		float deltaTime = (float)frameTime;
+		long newTime = TimeUtils.nanoTime();
+		double frameTime = Math.min((newTime - currentTime) / 1000000000.0, Env.MAX_STEP);
 		
 		currentTime = newTime;
 		accumulator += frameTime;
 		
-		while (accumulator >= Env.STEP) {
-			engine.getSystem(PhysicsSystem.class).setAlpha(Env.STEP / (float)accumulator);
-			engine.update(deltaTime);
+		int steps = 0;
+		
+		while (accumulator >= Env.STEP && steps < Env.MAX_STEPS_PER_FRAME) {
 			accumulator -= Env.STEP;
+			++steps;
 		}
 		
-		engine.getSystem(RenderingSystem.class).update(Env.STEP);
+		// Too far behind to catch up, drop the whole steps left over
+		if (accumulator >= Env.STEP) {
+			accumulator %= Env.STEP;
+		}
+		
+		pendingSteps = steps;
+		pendingAlpha = (float)(accumulator / Env.STEP);
+		
+		RenderingSystem renderingSystem = engine.getSystem(RenderingSystem.class);
+		
+		pollInput();
+		
+		if (Env.PARALLEL_SIMULATION && !renderingSystem.isDebug()) {
+			// The previous frame is drawn while this one is simulated. Input
+			// events arrive outside of render() and polled keys are read just
+			// above, sounds and UI changes coming from the simulation wait in
+			// the main thread queue for sync()
+			AsyncResult<Void> result = simulation.submit(simulate);
+			renderingSystem.update((float)frameTime);
+			result.get();
+			sync();
+		}
+		else {
+			simulate(pendingSteps, pendingAlpha);
+			sync();
+			renderingSystem.update((float)frameTime);
+		}
+	}
+	
+	/**
+	 * Advances the engine by whole steps and records the blended state for
+	 * rendering. Touches no GL state.
+	 */
+	private void simulate(int steps, float alpha) {
+		if (steps > 0) {
+			interpolate(1.0f);
+		}
+		
+		for (int i = 0; i < steps; ++i) {
+			engine.update(Env.STEP);
+		}
+		
+		interpolate(alpha);
+		engine.getSystem(RenderingSystem.class).extract();
+	}
+	
+	/**
+	 * Reads the keys systems poll, on the GL thread, before the simulation
+	 * starts.
+	 */
+	private void pollInput() {
+		engine.getSystem(PlayerSystem.class).pollInput();
+		engine.getSystem(CameraSystem.class).pollInput();
+	}
+	
+	/**
+	 * Runs between frames, when neither the simulation nor rendering are.
+	 */
+	private void sync() {
+		Env.getGame().getMainThreadQueue().run();
+		engine.getSystem(LightSystem.class).removePending();
+		engine.getSystem(RenderingSystem.class).swap();
+	}
+	
+	/**
+	 * Blends what gets drawn between the last two simulation steps. Bodies
+	 * and the camera are interpolated, skeletons and every other node follow
+	 * through their recomputed world transforms.
+	 */
+	private void interpolate(float alpha) {
+		engine.getSystem(PhysicsSystem.class).interpolate(alpha);
+		engine.getSystem(CameraSystem.class).interpolate(alpha);
+		engine.getSystem(TransformSystem.class).update(0.0f);
 	}
 
 	@Override
@@ -359,6 +467,8 @@ public class GameScreen implements Screen, InputProcessor {
 	public void dispose() {
 		logger.info("dispose");
 		
+		simulation.dispose();
+		
 		for (EntitySystem system : engine.getSystems()) {
 			if (system instanceof Disposable) {
 				((Disposable)system).dispose();
@@ -419,11 +529,15 @@ public class GameScreen implements Screen, InputProcessor {
 			Env.getGame().getCategories()
 		);
 		CameraSystem cameraSystem = new CameraSystem(camera);
+		ActivitySystem activitySystem = new ActivitySystem(
+			cameraSystem.getFocusRectangle(),
+			physicsSystem
+		);
 		LightSystem lightSystem = new LightSystem(physicsSystem.getWorld());
 		ParticleSystem particleSystem = new ParticleSystem(Env.UI_TO_WORLD);
 		LayerSystem layerSystem = new LayerSystem();
-		SpineSystem spineSystem = new SpineSystem();
-		VisionSystem visionSystem = new VisionSystem(physicsSystem.getWorld());
+		SpineSystem spineSystem = new SpineSystem(camera);
+		VisionSystem visionSystem = new VisionSystem();
 		StateMachineSystem stateMachineSystem = new StateMachineSystem();
 		PatrolSystem patrolSystem = new PatrolSystem();
 		IdleSystem idleSystem = new IdleSystem();
@@ -448,6 +562,7 @@ public class GameScreen implements Screen, InputProcessor {
 		SensorSystem sensorSystem = new SensorSystem(physicsSystem);
 		DoorSystem doorSystem = new DoorSystem();
 		AnimationControlSystem animationControlSystem = new AnimationControlSystem();
+		TransformSystem transformSystem = new TransformSystem();
 		RenderingSystem renderingSystem = new RenderingSystem(
 			viewport,
 			cameraSystem.getFocusRectangle(),
@@ -457,6 +572,7 @@ public class GameScreen implements Screen, InputProcessor {
 			lightSystem.getRayHandler()
 		);
 
+		activitySystem.priority = 0;
 		physicsSystem.priority = 1;
 		stateMachineSystem.priority = 1;
 		patrolSystem.priority = 2;
@@ -475,8 +591,10 @@ public class GameScreen implements Screen, InputProcessor {
 		cameraSystem.priority = 15;
 		animationControlSystem.priority = 16;
 		doorSystem.priority = 16;
+		transformSystem.priority = 17;
 		renderingSystem.priority = 18;
 		
+		engine.addSystem(activitySystem);
 		engine.addSystem(physicsSystem);
 		engine.addSystem(stateMachineSystem);
 		engine.addSystem(patrolSystem);
@@ -494,6 +612,7 @@ public class GameScreen implements Screen, InputProcessor {
 		engine.addSystem(gruntSystem);
 		engine.addSystem(animationControlSystem);
 		engine.addSystem(doorSystem);
+		engine.addSystem(transformSystem);
 		engine.addSystem(playerSystem);
 		engine.addSystem(visionSystem);
 		
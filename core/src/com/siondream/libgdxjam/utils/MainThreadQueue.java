@@ -0,0 +1,47 @@
+package com.siondream.libgdxjam.utils;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * Side effects the simulation hands over to the GL thread. Sounds and the
+ * UI are not safe to touch while the stage is drawn, which is what happens
+ * when GameScreen simulates on a worker, see Env.PARALLEL_SIMULATION.
+ *
+ * The simulation queues and GameScreen runs the queue between frames, never
+ * at the same time, so there is no locking. Runnables are kept by reference,
+ * queue long lived ones rather than allocating one per call.
+ */
+public class MainThreadQueue {
+	private final Array<Sound> sounds = new Array<Sound>();
+	private final FloatArray volumes = new FloatArray();
+	private final Array<Runnable> runnables = new Array<Runnable>();
+
+	public void play(Sound sound) {
+		play(sound, 1.0f);
+	}
+
+	public void play(Sound sound, float volume) {
+		sounds.add(sound);
+		volumes.add(volume);
+	}
+
+	public void post(Runnable runnable) {
+		runnables.add(runnable);
+	}
+
+	public void run() {
+		for (int i = 0; i < sounds.size; ++i) {
+			sounds.get(i).play(volumes.get(i));
+		}
+
+		for (int i = 0; i < runnables.size; ++i) {
+			runnables.get(i).run();
+		}
+
+		sounds.clear();
+		volumes.clear();
+		runnables.clear();
+	}
+}
@@ -0,0 +1,163 @@
+package com.siondream.libgdxjam.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Uniform grid over axis aligned bounds. Items are only moved between cells
+ * when the range of cells they overlap changes, so calling update() every
+ * step for things that barely move is cheap.
+ *
+ * Cell coordinates are packed into 16 bits each, cells 65536 apart share a
+ * bucket. Queries return candidates, callers still do the exact test.
+ */
+public class SpatialHash<T> {
+	private final float cellSize;
+	private final IntMap<Array<Entry<T>>> cells = new IntMap<Array<Entry<T>>>();
+	private final ObjectMap<T, Entry<T>> entries = new ObjectMap<T, Entry<T>>();
+	private int stamp;
+
+	public SpatialHash(float cellSize) {
+		if (cellSize <= 0.0f) {
+			throw new IllegalArgumentException("cellSize must be positive");
+		}
+
+		this.cellSize = cellSize;
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	public int size() {
+		return entries.size;
+	}
+
+	public boolean contains(T item) {
+		return entries.containsKey(item);
+	}
+
+	public void update(T item, float x, float y) {
+		update(item, x, y, x, y);
+	}
+
+	public void update(T item, float minX, float minY, float maxX, float maxY) {
+		int x0 = cell(minX);
+		int y0 = cell(minY);
+		int x1 = cell(maxX);
+		int y1 = cell(maxY);
+
+		Entry<T> entry = entries.get(item);
+
+		if (entry == null) {
+			entry = new Entry<T>(item);
+			entries.put(item, entry);
+		}
+		else if (entry.x0 == x0 && entry.y0 == y0 &&
+				 entry.x1 == x1 && entry.y1 == y1) {
+			return;
+		}
+		else {
+			unlink(entry);
+		}
+
+		entry.x0 = x0;
+		entry.y0 = y0;
+		entry.x1 = x1;
+		entry.y1 = y1;
+		link(entry);
+	}
+
+	public void remove(T item) {
+		Entry<T> entry = entries.remove(item);
+
+		if (entry != null) {
+			unlink(entry);
+		}
+	}
+
+	public void clear() {
+		for (Array<Entry<T>> cell : cells.values()) {
+			cell.clear();
+		}
+
+		entries.clear();
+	}
+
+	/**
+	 * Adds every item whose cells overlap the given bounds to out, once.
+	 * Does not clear out.
+	 */
+	public void query(float minX, float minY, float maxX, float maxY, Array<T> out) {
+		int x0 = cell(minX);
+		int y0 = cell(minY);
+		int x1 = cell(maxX);
+		int y1 = cell(maxY);
+
+		++stamp;
+
+		for (int x = x0; x <= x1; ++x) {
+			for (int y = y0; y <= y1; ++y) {
+				Array<Entry<T>> cell = cells.get(key(x, y));
+
+				if (cell == null) { continue; }
+
+				for (int i = 0; i < cell.size; ++i) {
+					Entry<T> entry = cell.get(i);
+
+					if (entry.stamp != stamp) {
+						entry.stamp = stamp;
+						out.add(entry.item);
+					}
+				}
+			}
+		}
+	}
+
+	private void link(Entry<T> entry) {
+		for (int x = entry.x0; x <= entry.x1; ++x) {
+			for (int y = entry.y0; y <= entry.y1; ++y) {
+				int key = key(x, y);
+				Array<Entry<T>> cell = cells.get(key);
+
+				if (cell == null) {
+					cell = new Array<Entry<T>>(false, 8);
+					cells.put(key, cell);
+				}
+
+				cell.add(entry);
+			}
+		}
+	}
+
+	private void unlink(Entry<T> entry) {
+		for (int x = entry.x0; x <= entry.x1; ++x) {
+			for (int y = entry.y0; y <= entry.y1; ++y) {
+				Array<Entry<T>> cell = cells.get(key(x, y));
+
+				if (cell != null) {
+					cell.removeValue(entry, true);
+				}
+			}
+		}
+	}
+
+	private int cell(float value) {
+		return (int)Math.floor(value / cellSize);
+	}
+
+	private static int key(int x, int y) {
+		return (x << 16) | (y & 0xFFFF);
+	}
+
+	private static class Entry<T> {
+		final T item;
+		int x0, y0, x1, y1;
+		int stamp;
+
+		Entry(T item) {
+			this.item = item;
+		}
+	}
+}